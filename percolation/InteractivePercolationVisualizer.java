@@ -1,13 +1,15 @@
 /******************************************************************************
  *  Compilation:  javac InteractivePercolationVisualizer.java
  *  Execution:    java InteractivePercolationVisualizer n
- *  Dependencies: PercolationVisualizer.java Percolation.java
+ *  Dependencies: PercolationVisualizer.java RollbackPercolation.java
  *                StdDraw.java StdOut.java
  *
  *  This program takes the grid size n as a command-line argument.
  *  Then, the user repeatedly clicks sites to open with the mouse.
- *  After each site is opened, it draws full sites in light blue,
- *  open sites (that aren't full) in white, and blocked sites in black.
+ *  Clicking an open site closes it again, and typing 'u' undoes
+ *  the last open. After each change, it draws full sites in light
+ *  blue, open sites (that aren't full) in white, and blocked sites
+ *  in black.
  *
  ******************************************************************************/
 
@@ -25,14 +27,25 @@ public class InteractivePercolationVisualizer {
         StdOut.println(n);
 
         StdDraw.enableDoubleBuffering();
-        Percolation perc = new Percolation(n);
+        RollbackPercolation perc = new RollbackPercolation(n);
         PercolationVisualizer.draw(perc, n);
         StdDraw.show();
 
+        boolean wasPressed = false;
         while (true) {
 
-            // detected mouse click
-            if (StdDraw.mousePressed()) {
+            // undo the last open
+            if (StdDraw.hasNextKeyTyped() && StdDraw.nextKeyTyped() == 'u'
+                && perc.numberOfOpenSites() > 0) {
+                int site = perc.undo();
+                StdOut.println(-(site / n + 1) + " " + (site % n + 1));
+                PercolationVisualizer.draw(perc, n);
+                StdDraw.show();
+            }
+
+            // detected mouse click, once per press
+            boolean pressed = StdDraw.mousePressed();
+            if (pressed && !wasPressed) {
 
                 // screen coordinates
                 double x = StdDraw.mouseX();
@@ -42,18 +55,24 @@ public class InteractivePercolationVisualizer {
                 int i = (int) (n - Math.floor(y));
                 int j = (int) (1 + Math.floor(x));
 
-                // open site (i, j) provided it's in bounds
+                // open or close site (i, j) provided it's in bounds; a closed
+                // site is printed with a negative row, see OfflinePercolation
                 if (i >= 1 && i <= n && j >= 1 && j <= n) {
-                    if (!perc.isOpen(i, j)) { 
+                    if (!perc.isOpen(i, j)) {
                         StdOut.println(i + " " + j);
+                        perc.open(i, j);
+                    }
+                    else {
+                        StdOut.println(-i + " " + j);
+                        perc.close(i, j);
                     }
-                    perc.open(i, j);
                 }
 
                 // draw n-by-n percolation system
                 PercolationVisualizer.draw(perc, n);
                 StdDraw.show();
             }
+            wasPressed = pressed;
 
             StdDraw.pause(20);
         }
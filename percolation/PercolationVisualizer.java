@@ -1,7 +1,7 @@
 /******************************************************************************
  *  Compilation:  javac PercolationVisualizer.java
  *  Execution:    java PercolationVisualizer input.txt
- *  Dependencies: Percolation.java
+ *  Dependencies: Percolation.java PercolationSystem.java
  *
  *  This program takes the name of a file as a command-line argument.
  *  From that file, it
@@ -27,7 +27,7 @@ public class PercolationVisualizer {
     private static final int DELAY = 100;
 
     // draw n-by-n percolation system
-    public static void draw(Percolation perc, int n) {
+    public static void draw(PercolationSystem perc, int n) {
         StdDraw.clear();
         StdDraw.setPenColor(StdDraw.BLACK);
         StdDraw.setXscale(-0.05*n, 1.05*n);
@@ -0,0 +1,50 @@
+import benchmarks.LayoutWorkload;
+
+// the CompactPercolation operations measured by benchmarks.LayoutBenchmark. Sites
+// are drawn at random rather than from a SiteShuffler, whose n^2 ints would not fit
+// next to a 16000-by-16000 grid; every layout sees the same sites.
+public class CompactPercolationWorkload implements LayoutWorkload {
+
+  // fraction of the sites opened before the grid is reset, and opened for isFull
+  private static final double FILL = 0.6;
+
+  private int n;
+
+  private CompactPercolation grid;
+  private final SiteRandom random = RandomEngine.SPLITMIX64.create();
+  private long opensUntilReset;
+  private long opens = 0;
+
+  @Override
+  public void setUp(int size, String layout, boolean filled) {
+    this.n = size;
+    grid = new CompactPercolation(n, SiteLayout.fromName(layout));
+    opensUntilReset = (long) (FILL * n * n);
+    if (filled) {
+      // past the threshold, so that most finds walk a long way up
+      random.setSeed(2L);
+      for (long i = 0; i < opensUntilReset; i++) {
+        grid.open(1 + random.nextInt(n), 1 + random.nextInt(n));
+      }
+    }
+    random.setSeed(1L);
+  }
+
+  // one open of a random site; the grid is reset after FILL n^2 opens
+  @Override
+  public boolean open() {
+    if (opens++ == opensUntilReset) {
+      grid.reset();
+      opens = 1;
+    }
+    grid.open(1 + random.nextInt(n), 1 + random.nextInt(n));
+    return grid.percolates();
+  }
+
+  // one find, through isFull, of a random site of the filled grid
+  @Override
+  public boolean isFull() {
+    return grid.isFull(1 + random.nextInt(n), 1 + random.nextInt(n));
+  }
+
+}
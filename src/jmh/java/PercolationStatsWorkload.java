@@ -0,0 +1,12 @@
+import benchmarks.StatsWorkload;
+
+// PercolationStats end to end, for benchmarks.PercolationStatsBenchmark
+public class PercolationStatsWorkload implements StatsWorkload {
+
+  @Override
+  public double run(int n, int trials, String engine, long seed) {
+    PercolationStats stats = new PercolationStats(n, trials, UnionFindEngine.fromName(engine), 1, seed);
+    return stats.mean();
+  }
+
+}
@@ -0,0 +1,103 @@
+import java.util.Arrays;
+import java.util.Random;
+
+import benchmarks.GridWorkload;
+
+// the Percolation operations measured by benchmarks.PercolationBenchmark.
+// JMH benchmarks cannot live in the default package, so they reach the code
+// under test through this class.
+public class PercolationWorkload implements GridWorkload {
+
+  private int n;
+
+  private Percolation openGrid;
+  private SiteShuffler openOrder;
+  private final Random openRandom = new Random(1L);
+
+  private Percolation trialGrid;
+  private SiteShuffler trialOrder;
+  private final Random trialRandom = new Random();
+  private long trialSeed = 0L;
+
+  private Percolation percolatedGrid;
+  private int[] openRows;
+  private int[] openCols;
+  private int nextOpenSite = 0;
+
+  @Override
+  public void setUp(int size, String engine) {
+    this.n = size;
+    UnionFindEngine e = UnionFindEngine.fromName(engine);
+    openGrid = new Percolation(n, e);
+    openOrder = new SiteShuffler(n * n);
+    openOrder.restart(openRandom);
+    trialGrid = new Percolation(n, e);
+    trialOrder = new SiteShuffler(n * n);
+
+    // a grid opened up to percolation, and the sites that are open in it
+    percolatedGrid = new Percolation(n, e);
+    SiteShuffler order = new SiteShuffler(n * n);
+    order.restart(new Random(2L));
+    openRows = new int[n * n];
+    openCols = new int[n * n];
+    int opened = 0;
+    while (!percolatedGrid.percolates()) {
+      int site = order.next();
+      openRows[opened] = site / n + 1;
+      openCols[opened] = site % n + 1;
+      percolatedGrid.open(openRows[opened], openCols[opened]);
+      opened++;
+    }
+    // shuffle the probe order so isFull hits sites in random order
+    Random random = new Random(3L);
+    for (int i = opened - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int row = openRows[i];
+      int col = openCols[i];
+      openRows[i] = openRows[j];
+      openCols[i] = openCols[j];
+      openRows[j] = row;
+      openCols[j] = col;
+    }
+    openRows = Arrays.copyOf(openRows, opened);
+    openCols = Arrays.copyOf(openCols, opened);
+  }
+
+  // one open of a not yet open site; the grid is reset once every site is open
+  @Override
+  public boolean open() {
+    if (!openOrder.hasNext()) {
+      openGrid.reset();
+      openOrder.restart(openRandom);
+    }
+    int site = openOrder.next();
+    openGrid.open(site / n + 1, site % n + 1);
+    return openGrid.percolates();
+  }
+
+  @Override
+  public boolean isFull() {
+    int i = nextOpenSite;
+    nextOpenSite = i + 1 == openRows.length ? 0 : i + 1;
+    return percolatedGrid.isFull(openRows[i], openCols[i]);
+  }
+
+  @Override
+  public boolean percolates() {
+    return percolatedGrid.percolates();
+  }
+
+  // a whole trial: reset, then open random sites until the grid percolates
+  @Override
+  public int trialToPercolation() {
+    trialGrid.reset();
+    trialRandom.setSeed(trialSeed++);
+    trialOrder.restart(trialRandom);
+    do {
+      int site = trialOrder.next();
+      trialGrid.open(site / n + 1, site % n + 1);
+    } while (!trialGrid.percolates());
+    return trialGrid.numberOfOpenSites();
+  }
+
+}
@@ -0,0 +1,16 @@
+package benchmarks;
+
+// single-grid operations, implemented in the default package by PercolationWorkload
+public interface GridWorkload {
+
+  void setUp(int n, String engine);
+
+  boolean open();
+
+  boolean isFull();
+
+  boolean percolates();
+
+  int trialToPercolation();
+
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+// run with: gradle jmh -Djmh.includes=LayoutBenchmark
+// n = 16000 needs a little over 1 GB for the grid, hence the larger heap
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class LayoutBenchmark {
+
+  @Param({"1000", "4000", "16000"})
+  private int n;
+
+  @Param({"ROW_MAJOR", "TILED", "MORTON"})
+  private String layout;
+
+  private LayoutWorkload workload;
+
+  @Setup(Level.Trial)
+  public void setUp(BenchmarkParams params) {
+    workload = Workloads.load("CompactPercolationWorkload", LayoutWorkload.class);
+    workload.setUp(n, layout, params.getBenchmark().endsWith(".isFull"));
+  }
+
+  @Benchmark
+  public boolean open() {
+    return workload.open();
+  }
+
+  @Benchmark
+  public boolean isFull() {
+    return workload.isFull();
+  }
+
+}
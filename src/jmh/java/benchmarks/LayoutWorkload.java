@@ -0,0 +1,15 @@
+package benchmarks;
+
+// opens and finds on a CompactPercolation in a given SiteLayout, implemented in
+// the default package by CompactPercolationWorkload
+public interface LayoutWorkload {
+
+  // an empty grid to open sites on, or with filled a grid opened past the
+  // threshold to find on; at n = 16000 there is room for only one of them
+  void setUp(int n, String layout, boolean filled);
+
+  boolean open();
+
+  boolean isFull();
+
+}
@@ -0,0 +1,61 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// run with: gradle jmh -Djmh.includes=PercolationBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PercolationBenchmark {
+
+  @Param({"100", "1000", "2000"})
+  private int n;
+
+  @Param({"COMPACT", "ALGS4"})
+  private String engine;
+
+  private GridWorkload workload;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    workload = Workloads.load("PercolationWorkload", GridWorkload.class);
+    workload.setUp(n, engine);
+  }
+
+  @Benchmark
+  public boolean open() {
+    return workload.open();
+  }
+
+  @Benchmark
+  public boolean isFull() {
+    return workload.isFull();
+  }
+
+  @Benchmark
+  public boolean percolates() {
+    return workload.percolates();
+  }
+
+  @Benchmark
+  public int trialToPercolation() {
+    return workload.trialToPercolation();
+  }
+
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// run with: gradle jmh -Djmh.includes=PercolationStatsBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PercolationStatsBenchmark {
+
+  @Param({"100", "400"})
+  private int n;
+
+  @Param({"100"})
+  private int trials;
+
+  @Param({"COMPACT", "ALGS4"})
+  private String engine;
+
+  private StatsWorkload workload;
+  private long seed = 0L;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    workload = Workloads.load("PercolationStatsWorkload", StatsWorkload.class);
+  }
+
+  // a different seed for every invocation
+  @Benchmark
+  public double stats() {
+    return workload.run(n, trials, engine, seed++);
+  }
+
+}
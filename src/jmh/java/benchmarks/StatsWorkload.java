@@ -0,0 +1,8 @@
+package benchmarks;
+
+// a complete PercolationStats run, implemented in the default package by PercolationStatsWorkload
+public interface StatsWorkload {
+
+  double run(int n, int trials, String engine, long seed);
+
+}
@@ -0,0 +1,17 @@
+package benchmarks;
+
+// loads the default-package workload classes, which cannot be referenced from here by name
+final class Workloads {
+
+  private Workloads() {
+  }
+
+  static <T> T load(String className, Class<T> type) {
+    try {
+      return type.cast(Class.forName(className).getDeclaredConstructor().newInstance());
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("cannot load workload " + className, e);
+    }
+  }
+
+}
@@ -0,0 +1,50 @@
+import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+
+// adapter over algs4's WeightedQuickUnionUF, kept as the reference engine
+public class Algs4UnionFind implements UnionFind {
+
+  private final int n;
+  private WeightedQuickUnionUF wqu;
+
+  public Algs4UnionFind(int n) {
+    this.n = n;
+    this.wqu = new WeightedQuickUnionUF(n);
+  }
+
+  @Override
+  public int find(int p) {
+    return wqu.find(p);
+  }
+
+  @Override
+  public void union(int p, int q) {
+    wqu.union(p, q);
+  }
+
+  // WeightedQuickUnionUF cannot unlink single sites, so start over
+  @Override
+  public void reset(int[] sites, int count) {
+    if (count > 0) {
+      this.wqu = new WeightedQuickUnionUF(n);
+    }
+  }
+
+  @Override
+  public Algs4UnionFind copy() {
+    Algs4UnionFind copy = new Algs4UnionFind(n);
+    copy.copyFrom(this);
+    return copy;
+  }
+
+  // WeightedQuickUnionUF hides its arrays, so the components are rebuilt by hanging
+  // every site below its root; a root is never smaller than the site joined to
+  // it, which keeps the roots of source
+  @Override
+  public void copyFrom(UnionFind source) {
+    this.wqu = new WeightedQuickUnionUF(n);
+    for (int site = 0; site < n; site++) {
+      wqu.union(source.find(site), site);
+    }
+  }
+
+}
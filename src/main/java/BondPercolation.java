@@ -0,0 +1,149 @@
+// bond percolation on any Lattice: every site is present and the bonds between
+// neighboring sites are opened one by one. The system percolates once open bonds
+// join a site of the top layer to a site of the bottom layer. Bonds are numbered
+// as in Lattice, site * forwardDegree() + k; numbers whose bond would leave the
+// lattice do not name a bond and cannot be opened.
+public class BondPercolation {
+
+  private static final int CONNECTED_TO_TOP = 1 << 0;
+  private static final int CONNECTED_TO_BOTTOM = 1 << 1;
+
+  private final Lattice lattice;
+  private final int n;
+  private final int sites;
+  private final int degree;
+  private final int bonds;
+  private final CompactUnionFind uf;
+  private final int[] statusOfSites;
+  private final boolean[] openBonds;
+  private final int[] openedBonds;
+  private final int[] touchedSites;
+  private int openBondsCount = 0;
+  private boolean percolates = false;
+
+  // create a lattice of size n, with all bonds closed; n = 1 would have no bonds
+  public BondPercolation(Lattice lattice, int n) {
+    if (n < 2) {
+      throw new IllegalArgumentException("Size must be at least 2 for bond percolation!");
+    }
+    this.lattice = lattice;
+    this.n = n;
+    this.sites = lattice.sites(n);
+    this.degree = lattice.forwardDegree();
+    // touchedSites holds both ends of every bond slot
+    if (2L * sites * degree > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Size " + n + " is too large for bond percolation on a " + lattice + " lattice");
+    }
+    this.uf = new CompactUnionFind(sites);
+    this.statusOfSites = new int[sites];
+    this.openBonds = new boolean[sites * degree];
+    this.openedBonds = new int[sites * degree];
+    this.touchedSites = new int[2 * sites * degree];
+    int count = 0;
+    for (int site = 0; site < sites; site++) {
+      statusOfSites[site] = initialStatusOf(site);
+      for (int k = 0; k < degree; k++) {
+        if (lattice.bondTarget(n, site, k) != Lattice.NO_SITE) {
+          count++;
+        }
+      }
+    }
+    this.bonds = count;
+  }
+
+  private int initialStatusOf(int site) {
+    int status = 0;
+    if (site < lattice.layer(n)) {
+      status = status | CONNECTED_TO_TOP;
+    }
+    if (site >= sites - lattice.layer(n)) {
+      status = status | CONNECTED_TO_BOTTOM;
+    }
+    return status;
+  }
+
+  private int targetOf(int bond) {
+    if (bond < 0 || bond >= openBonds.length) {
+      throw new IndexOutOfBoundsException("bond must be between 0 and " + (openBonds.length - 1));
+    }
+    return lattice.bondTarget(n, bond / degree, bond % degree);
+  }
+
+  // does the number name a bond of the lattice?
+  public boolean isBond(int bond) {
+    return targetOf(bond) != Lattice.NO_SITE;
+  }
+
+  // open the bond if it is not open already
+  public void open(int bond) {
+    int target = targetOf(bond);
+    if (target == Lattice.NO_SITE) {
+      throw new IllegalArgumentException(bond + " is not a bond of the lattice");
+    }
+    if (openBonds[bond]) {
+      return;
+    }
+    int site = bond / degree;
+    openBonds[bond] = true;
+    touchedSites[2 * openBondsCount] = site;
+    touchedSites[2 * openBondsCount + 1] = target;
+    openedBonds[openBondsCount++] = bond;
+    int status = statusOfSites[uf.find(site)] | statusOfSites[uf.find(target)];
+    uf.union(site, target);
+    int root = uf.find(site);
+    statusOfSites[root] = status;
+    if ((status & CONNECTED_TO_TOP) != 0 && (status & CONNECTED_TO_BOTTOM) != 0) {
+      this.percolates = true;
+    }
+  }
+
+  public boolean isOpen(int bond) {
+    targetOf(bond);
+    return openBonds[bond];
+  }
+
+  // is site connected to the top layer through open bonds?
+  public boolean isFull(int site) {
+    if (site < 0 || site >= sites) {
+      throw new IndexOutOfBoundsException("site must be between 0 and " + (sites - 1));
+    }
+    return (statusOfSites[uf.find(site)] & CONNECTED_TO_TOP) != 0;
+  }
+
+  public Lattice lattice() {
+    return lattice;
+  }
+
+  // number of bond numbers, including those that name no bond
+  public int bondSlots() {
+    return openBonds.length;
+  }
+
+  // number of bonds of the lattice
+  public int bonds() {
+    return bonds;
+  }
+
+  public int numberOfOpenBonds() {
+    return openBondsCount;
+  }
+
+  // does the system percolate?
+  public boolean percolates() {
+    return this.percolates;
+  }
+
+  // close every bond again, touching only the bonds opened since the last reset
+  public void reset() {
+    for (int i = 0; i < openBondsCount; i++) {
+      openBonds[openedBonds[i]] = false;
+    }
+    for (int i = 0; i < 2 * openBondsCount; i++) {
+      statusOfSites[touchedSites[i]] = initialStatusOf(touchedSites[i]);
+    }
+    uf.reset(touchedSites, 2 * openBondsCount);
+    this.openBondsCount = 0;
+    this.percolates = false;
+  }
+
+}
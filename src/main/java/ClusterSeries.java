@@ -0,0 +1,147 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+// Cluster statistics as a function of the fraction p of open sites, averaged over
+// trials. Each trial opens all n^2 sites in the order PercolationStats uses for
+// the same (seed, trial) and samples the grid's ClusterTracker at evenly spaced
+// values of p. The tracker is updated as the sites open, so a sample costs
+// nothing extra; PercolationStats --series takes the samples during its own
+// trials, which then go on past percolation to n^2 open sites.
+public class ClusterSeries {
+
+  // samples per point: largest fraction, clusters per site and mean cluster size
+  static final int VALUES_PER_POINT = 3;
+
+  private final int points;
+  private final double[] largestFraction;
+  private final double[] clustersPerSite;
+  private final double[] meanClusterSize;
+  private int trials;
+
+  public ClusterSeries(int n, int trials, long seed, int points) {
+    this(n, trials, seed, points, RandomEngine.DEFAULT);
+  }
+
+  public ClusterSeries(int n, int trials, long seed, int points, RandomEngine rng) {
+    this(points);
+    if (n <= 0 || trials <= 0) {
+      throw new IllegalArgumentException("both n and trials should be > 0");
+    }
+    Percolation p = new Percolation(n);
+    ClusterTracker clusters = p.trackClusters(false);
+    SiteShuffler shuffler = new SiteShuffler(n * n);
+    SiteRandom random = rng.create();
+    double[] samples = new double[points * VALUES_PER_POINT];
+    for (int i = 0; i < trials; i++) {
+      p.reset();
+      random.setSeed(PercolationStats.trialSeed(seed, i));
+      shuffler.restart(random);
+      openAndSample(p, clusters, shuffler, n, points, samples);
+      add(samples);
+    }
+  }
+
+  // an empty series, to add() the samples of trials run elsewhere to
+  ClusterSeries(int points) {
+    if (points < 2) {
+      throw new IllegalArgumentException("points should be >= 2");
+    }
+    this.points = points;
+    this.largestFraction = new double[points];
+    this.clustersPerSite = new double[points];
+    this.meanClusterSize = new double[points];
+  }
+
+  // opens all sites of p, which must be blocked and report to clusters, in the
+  // order of shuffler, leaving the samples of every point in samples; returns the
+  // fraction of open sites at which p began to percolate
+  static double openAndSample(Percolation p, ClusterTracker clusters, SiteShuffler shuffler, int n, int points,
+      double[] samples) {
+    int sites = n * n;
+    int percolatedAt = -1;
+    for (int point = 0; point < points; point++) {
+      int openSites = (int) Math.round(point * (double) sites / (points - 1));
+      while (p.numberOfOpenSites() < openSites) {
+        int site = shuffler.next();
+        p.open(site / n + 1, site % n + 1);
+        if (percolatedAt < 0 && p.percolates()) {
+          percolatedAt = p.numberOfOpenSites();
+        }
+      }
+      samples[point * VALUES_PER_POINT] = clusters.largestClusterSize() / (double) sites;
+      samples[point * VALUES_PER_POINT + 1] = clusters.numberOfClusters() / (double) sites;
+      samples[point * VALUES_PER_POINT + 2] = clusters.meanClusterSize();
+    }
+    return percolatedAt / (double) sites;
+  }
+
+  // adds the samples of one more trial, as left by openAndSample()
+  void add(double[] samples) {
+    for (int point = 0; point < points; point++) {
+      largestFraction[point] += samples[point * VALUES_PER_POINT];
+      clustersPerSite[point] += samples[point * VALUES_PER_POINT + 1];
+      meanClusterSize[point] += samples[point * VALUES_PER_POINT + 2];
+    }
+    trials++;
+  }
+
+  private static int toInt(String s) {
+    return Integer.parseInt(s);
+  }
+
+  // number of values of p sampled
+  public int points() {
+    return points;
+  }
+
+  // fraction of open sites at the given point
+  public double p(int point) {
+    return point / (double) (points - 1);
+  }
+
+  // mean fraction of all sites in the largest cluster
+  public double largestFraction(int point) {
+    return largestFraction[point] / trials;
+  }
+
+  // mean number of clusters per site
+  public double clustersPerSite(int point) {
+    return clustersPerSite[point] / trials;
+  }
+
+  // mean susceptibility, see ClusterTracker.meanClusterSize()
+  public double meanClusterSize(int point) {
+    return meanClusterSize[point] / trials;
+  }
+
+  // writes "p,largest,clusters,meanClusterSize" lines
+  public void write(Path file) throws IOException {
+    try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.US_ASCII))) {
+      out.println("p,largest,clusters,meanClusterSize");
+      for (int point = 0; point < points; point++) {
+        out.println(String.format(Locale.ROOT, "%.6f,%.8f,%.8f,%.6f", p(point), largestFraction(point),
+            clustersPerSite(point), meanClusterSize(point)));
+      }
+    }
+  }
+
+  public static void main(String[] args) {
+    if (args.length < 3) {
+      throw new IllegalArgumentException("required: n, trials and output file. optional: number of points, seed");
+    }
+    int points = args.length > 3 ? toInt(args[3]) : 101;
+    long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+    try {
+      new ClusterSeries(toInt(args[0]), toInt(args[1]), seed, points).write(Paths.get(args[2]));
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot write " + args[2], e);
+    }
+  }
+
+}
@@ -0,0 +1,114 @@
+// Cluster statistics of a Percolation grid, kept up to date by the grid itself in
+// O(1) per open: every open adds a cluster of size 1 and every union of two
+// clusters adds their sizes. Get one with Percolation.trackClusters().
+//
+// meanClusterSize() is the susceptibility: the mean size of the cluster of an open
+// site, sum of s^2 over sum of s, leaving out the largest cluster as is usual,
+// since above the threshold it is the spanning one.
+public class ClusterTracker {
+
+  private final int[] sizeOfRoot;
+  private final int[] clustersOfSize;
+  private int clusters = 0;
+  private int sites = 0;
+  private int largest = 0;
+  private long sumOfSquares = 0;
+
+  ClusterTracker(int sites, boolean histogram) {
+    this.sizeOfRoot = new int[sites];
+    this.clustersOfSize = histogram ? new int[sites + 1] : null;
+  }
+
+  // site was opened, as a cluster of its own
+  void opened(int site) {
+    added(site, 1);
+  }
+
+  // a whole cluster of the given size with the given root
+  void added(int root, int size) {
+    sizeOfRoot[root] = size;
+    clusters++;
+    sites += size;
+    sumOfSquares += (long) size * size;
+    largest = Math.max(largest, size);
+    if (clustersOfSize != null) {
+      clustersOfSize[size]++;
+    }
+  }
+
+  // the clusters of roots rootP and rootQ were joined under root
+  void joined(int rootP, int rootQ, int root) {
+    int sizeP = sizeOfRoot[rootP];
+    int sizeQ = sizeOfRoot[rootQ];
+    int size = sizeP + sizeQ;
+    sizeOfRoot[root] = size;
+    clusters--;
+    sumOfSquares += 2L * sizeP * sizeQ;
+    largest = Math.max(largest, size);
+    if (clustersOfSize != null) {
+      clustersOfSize[sizeP]--;
+      clustersOfSize[sizeQ]--;
+      clustersOfSize[size]++;
+    }
+  }
+
+  // adds the clusters of the given open sites, counting in sizeOfRoot, which is all
+  // zeros outside of open sites
+  void refill(UnionFind uf, int[] openedSites, int count) {
+    for (int i = 0; i < count; i++) {
+      sizeOfRoot[uf.find(openedSites[i])]++;
+    }
+    for (int i = 0; i < count; i++) {
+      int site = openedSites[i];
+      if (sizeOfRoot[site] > 0) {
+        added(site, sizeOfRoot[site]);
+      }
+    }
+  }
+
+  boolean hasHistogram() {
+    return clustersOfSize != null;
+  }
+
+  // forget the given open sites, as Percolation.reset() does
+  void reset(int[] openedSites, int count) {
+    if (clustersOfSize != null) {
+      for (int i = 0; i < count; i++) {
+        clustersOfSize[sizeOfRoot[openedSites[i]]] = 0;
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      sizeOfRoot[openedSites[i]] = 0;
+    }
+    clusters = 0;
+    sites = 0;
+    largest = 0;
+    sumOfSquares = 0;
+  }
+
+  public int numberOfClusters() {
+    return clusters;
+  }
+
+  public int largestClusterSize() {
+    return largest;
+  }
+
+  // mean size of the cluster an open site outside the largest cluster belongs to
+  public double meanClusterSize() {
+    long rest = sites - largest;
+    return rest == 0 ? 0.0 : (sumOfSquares - (long) largest * largest) / (double) rest;
+  }
+
+  // number of clusters of the given size; needs a tracker made with a histogram
+  public int clustersOfSize(int size) {
+    if (clustersOfSize == null) {
+      throw new IllegalStateException("clusters are tracked without a histogram");
+    }
+    if (size <= 0 || size >= clustersOfSize.length) {
+      throw new IndexOutOfBoundsException("size must be between 1 and " + (clustersOfSize.length - 1));
+    }
+    return clustersOfSize[size];
+  }
+
+}
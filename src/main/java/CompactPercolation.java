@@ -0,0 +1,226 @@
+import java.util.Arrays;
+
+// memory-lean percolation grid for very large n. Open sites are kept in a
+// long[] bitset and the union-find is a single int[] of parent links in which
+// a root entry holds its rank and the top/bottom flags of its component, so
+// the whole grid costs a little over 4 bytes per site (Percolation needs 12).
+// The sites can be laid out in tiles or along a Morton curve instead of row by
+// row, see SiteLayout, which keeps the vertical neighbors of large grids close.
+public class CompactPercolation implements PercolationSystem {
+
+  private static final int CONNECTED_TO_TOP = 1 << 0;
+  private static final int CONNECTED_TO_BOTTOM = 1 << 1;
+  private static final int FLAG_BITS = 2;
+  private static final int FLAG_MASK = (1 << FLAG_BITS) - 1;
+
+  private final int dim;
+  private final SiteLayout layout;
+  private final int stride;
+  private final long[] openSites;
+  private final int[] parent;
+  private int openSitesCount = 0;
+  private boolean percolates = false;
+
+  // create dim-by-dim grid, with all sites blocked
+  public CompactPercolation(int n) {
+    this(n, SiteLayout.ROW_MAJOR);
+  }
+
+  // create dim-by-dim grid with the given layout, with all sites blocked
+  public CompactPercolation(int n, SiteLayout layout) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("Size must be greater than 0!");
+    }
+    if (layout.sites(n) > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Size is too large for the " + layout + " layout!");
+    }
+    int sites = (int) layout.sites(n);
+    this.dim = n;
+    this.layout = layout;
+    this.stride = layout.stride(n);
+    this.openSites = new long[(sites + 63) >>> 6];
+    this.parent = new int[sites];
+    // padding sites are never opened, so they stay roots without flags
+    Arrays.fill(parent, rootEntry(0, 0));
+    for (int row = 0; row < n; row++) {
+      for (int col = 0; col < n; col++) {
+        parent[layout.index(row, col, stride)] = initialEntryOf(row);
+      }
+    }
+  }
+
+  // a root entry is negative: -1 - (rank << FLAG_BITS | flags)
+  private static int rootEntry(int rank, int flags) {
+    return -1 - ((rank << FLAG_BITS) | flags);
+  }
+
+  private static int rankOf(int rootEntry) {
+    return (-1 - rootEntry) >>> FLAG_BITS;
+  }
+
+  private static int flagsOf(int rootEntry) {
+    return (-1 - rootEntry) & FLAG_MASK;
+  }
+
+  // initial entry of a site in the given 0-based row
+  private int initialEntryOf(int row) {
+    int flags = 0;
+    if (row == 0) {
+      flags = flags | CONNECTED_TO_TOP;
+    }
+    if (row == dim - 1) {
+      flags = flags | CONNECTED_TO_BOTTOM;
+    }
+    return rootEntry(0, flags);
+  }
+
+  private boolean isOpenSite(int i) {
+    return (openSites[i >>> 6] & (1L << i)) != 0;
+  }
+
+  private int find(int p) {
+    int site = p;
+    while (parent[site] >= 0) {
+      int grandParent = parent[parent[site]];
+      if (grandParent >= 0) {
+        parent[site] = grandParent;
+      }
+      site = parent[site];
+    }
+    return site;
+  }
+
+  // union by rank, merging the flags of both components into the new root
+  private void union(int p, int q) {
+    int rootP = find(p);
+    int rootQ = find(q);
+    if (rootP == rootQ) {
+      return;
+    }
+    int rankP = rankOf(parent[rootP]);
+    int rankQ = rankOf(parent[rootQ]);
+    int flags = flagsOf(parent[rootP]) | flagsOf(parent[rootQ]);
+    if (rankP < rankQ) {
+      parent[rootP] = rootQ;
+      parent[rootQ] = rootEntry(rankQ, flags);
+    } else {
+      parent[rootQ] = rootP;
+      parent[rootP] = rootEntry(rankP == rankQ ? rankP + 1 : rankP, flags);
+    }
+  }
+
+  private void unionWithOpenNeighbor(int site, int neighbor) {
+    if (isOpenSite(neighbor)) {
+      union(site, neighbor);
+    }
+  }
+
+  private int to1D(int row, int col) {
+    return layout.index(row - 1, col - 1, stride);
+  }
+
+  private boolean isInvalidIndex(int n) {
+    return n <= 0 || n > dim;
+  }
+
+  private void throwIndexOutOfBounds(String errorFor) {
+    throw new IndexOutOfBoundsException(errorFor + " must be between 1 and " + dim);
+  }
+
+  private void validateIndices(int row, int col) {
+    if (isInvalidIndex(row)) {
+      throwIndexOutOfBounds("row");
+    } else if (isInvalidIndex(col)) {
+      throwIndexOutOfBounds("column");
+    }
+  }
+
+  // open site (row, col) if it is not open already
+  @Override
+  public void open(int row, int col) {
+    validateIndices(row, col);
+    int site = to1D(row, col);
+    if (isOpenSite(site)) {
+      return;
+    }
+    openSites[site >>> 6] |= 1L << site;
+    openSitesCount++;
+    if (row > 1) {
+      unionWithOpenNeighbor(site, to1D(row - 1, col));
+    }
+    if (col < dim) {
+      unionWithOpenNeighbor(site, to1D(row, col + 1));
+    }
+    if (row < dim) {
+      unionWithOpenNeighbor(site, to1D(row + 1, col));
+    }
+    if (col > 1) {
+      unionWithOpenNeighbor(site, to1D(row, col - 1));
+    }
+    if (flagsOf(parent[find(site)]) == (CONNECTED_TO_TOP | CONNECTED_TO_BOTTOM)) {
+      this.percolates = true;
+    }
+  }
+
+  // is site (row, col) open?
+  @Override
+  public boolean isOpen(int row, int col) {
+    validateIndices(row, col);
+    return isOpenSite(to1D(row, col));
+  }
+
+  // is site (row, col) full?
+  @Override
+  public boolean isFull(int row, int col) {
+    validateIndices(row, col);
+    int site = to1D(row, col);
+    return isOpenSite(site) && (flagsOf(parent[find(site)]) & CONNECTED_TO_TOP) != 0;
+  }
+
+  // number of open sites
+  @Override
+  public int numberOfOpenSites() {
+    return openSitesCount;
+  }
+
+  // does the system percolate?
+  @Override
+  public boolean percolates() {
+    return this.percolates;
+  }
+
+  // block every site again; scans the open bitset a word at a time and only
+  // touches the parent entries of open sites
+  @Override
+  public void reset() {
+    for (int w = 0; w < openSites.length; w++) {
+      long word = openSites[w];
+      while (word != 0) {
+        int site = (w << 6) + Long.numberOfTrailingZeros(word);
+        parent[site] = initialEntryOf(layout.rowOf(site, stride));
+        word = word & (word - 1);
+      }
+      openSites[w] = 0;
+    }
+    this.openSitesCount = 0;
+    this.percolates = false;
+  }
+
+  // heap bytes used per site by the arrays of an n-by-n grid
+  public static double bytesPerSite(int n) {
+    return bytesPerSite(n, SiteLayout.ROW_MAJOR);
+  }
+
+  // heap bytes used per site by the arrays of an n-by-n grid in the given layout,
+  // padding included
+  public static double bytesPerSite(int n, SiteLayout layout) {
+    long sites = layout.sites(n);
+    return (((sites + 63) >>> 6) * 8.0 + sites * 4.0) / ((long) n * n);
+  }
+
+  // heap bytes used per site by this grid's arrays
+  public double bytesPerSite() {
+    return bytesPerSite(dim, layout);
+  }
+
+}
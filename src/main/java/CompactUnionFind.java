@@ -0,0 +1,78 @@
+import java.util.Arrays;
+
+// weighted quick-union with path halving, packed into a single int[]:
+// a non-negative entry is the parent of the site, a negative entry marks
+// a root and holds minus the size of its component.
+// No bounds checks, callers (Percolation) validate indices up front.
+public class CompactUnionFind implements UnionFind {
+
+  private final int[] parent;
+
+  public CompactUnionFind(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("Size must not be negative!");
+    }
+    this.parent = new int[n];
+    Arrays.fill(parent, -1);
+  }
+
+  @Override
+  public int find(int p) {
+    int site = p;
+    int hops = 0;
+    while (parent[site] >= 0) {
+      int grandParent = parent[parent[site]];
+      if (grandParent >= 0) {
+        parent[site] = grandParent;
+      }
+      site = parent[site];
+      hops++;
+    }
+    if (PercolationMetrics.ENABLED) {
+      PercolationMetrics.recordFind(hops);
+    }
+    return site;
+  }
+
+  @Override
+  public void union(int p, int q) {
+    int rootP = find(p);
+    int rootQ = find(q);
+    if (rootP == rootQ) {
+      return;
+    }
+    // sizes are stored negated, so the larger component has the smaller entry
+    if (parent[rootP] > parent[rootQ]) {
+      int tmp = rootP;
+      rootP = rootQ;
+      rootQ = tmp;
+    }
+    parent[rootP] += parent[rootQ];
+    parent[rootQ] = rootP;
+  }
+
+  @Override
+  public void reset(int[] sites, int count) {
+    for (int i = 0; i < count; i++) {
+      parent[sites[i]] = -1;
+    }
+  }
+
+  @Override
+  public CompactUnionFind copy() {
+    CompactUnionFind copy = new CompactUnionFind(parent.length);
+    System.arraycopy(parent, 0, copy.parent, 0, parent.length);
+    return copy;
+  }
+
+  @Override
+  public void copyFrom(UnionFind source) {
+    System.arraycopy(((CompactUnionFind) source).parent, 0, parent, 0, parent.length);
+  }
+
+  // number of sites in the component containing p
+  public int size(int p) {
+    return -parent[find(p)];
+  }
+
+}
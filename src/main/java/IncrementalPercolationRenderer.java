@@ -0,0 +1,104 @@
+/******************************************************************************
+ *  Compilation:  javac IncrementalPercolationRenderer.java
+ *  Dependencies: Percolation.java PercolationVisualizer.java
+ *
+ *  Keeps an n-by-n percolation drawing up to date one open at a time,
+ *  instead of redrawing all n^2 sites after every open.
+ *
+ *  It remembers how each site was last drawn. After an open it repaints
+ *  the opened site, and if that site is full it floods out from it over
+ *  open sites that were not yet drawn full, which are exactly the sites
+ *  that just became full. Every site turns full once, so replaying a
+ *  whole trace costs O(n^2) site updates overall.
+ *
+ ******************************************************************************/
+
+import java.awt.Color;
+import java.awt.Font;
+
+import edu.princeton.cs.algs4.StdDraw;
+
+public class IncrementalPercolationRenderer {
+
+    private static final Font STATUS_FONT = new Font("SansSerif", Font.PLAIN, 12);
+
+    private final Percolation perc;
+    private final int n;
+    private final boolean[] drawnOpen;
+    private final boolean[] drawnFull;
+    private final int[] flood;         // queue of sites, reused by every open
+    private int opened;
+
+    // draws the whole system once; later frames only repaint what changed
+    public IncrementalPercolationRenderer(Percolation perc, int n) {
+        this.perc = perc;
+        this.n = n;
+        this.drawnOpen = new boolean[n * n];
+        this.drawnFull = new boolean[n * n];
+        this.flood = new int[n * n];
+        PercolationVisualizer.draw(perc, n);
+        for (int row = 1; row <= n; row++) {
+            for (int col = 1; col <= n; col++) {
+                int site = (row - 1) * n + (col - 1);
+                drawnOpen[site] = perc.isOpen(row, col);
+                drawnFull[site] = perc.isFull(row, col);
+                if (drawnOpen[site]) opened++;
+            }
+        }
+    }
+
+    private static void drawSite(int row, int col, int n, Color color) {
+        StdDraw.setPenColor(color);
+        StdDraw.filledSquare(col - 0.5, n - row + 0.5, 0.45);
+    }
+
+    // repaint what changed after site (row, col) was opened
+    public void opened(int row, int col) {
+        int site = (row - 1) * n + (col - 1);
+        if (!drawnOpen[site] && perc.isOpen(row, col)) {
+            drawnOpen[site] = true;
+            opened++;
+            drawSite(row, col, n, StdDraw.WHITE);
+        }
+        if (!drawnFull[site] && perc.isFull(row, col)) {
+            fillFrom(site);
+        }
+        drawStatus();
+    }
+
+    // flood over open sites not yet drawn full, painting each of them full
+    private void fillFrom(int start) {
+        int head = 0;
+        int tail = 0;
+        drawnFull[start] = true;
+        flood[tail++] = start;
+        while (head < tail) {
+            int site = flood[head++];
+            int row = site / n + 1;
+            int col = site % n + 1;
+            drawSite(row, col, n, StdDraw.BOOK_LIGHT_BLUE);
+            if (row > 1)  tail = enqueue(site - n, tail);
+            if (col < n)  tail = enqueue(site + 1, tail);
+            if (row < n)  tail = enqueue(site + n, tail);
+            if (col > 1)  tail = enqueue(site - 1, tail);
+        }
+    }
+
+    private int enqueue(int site, int tail) {
+        if (drawnFull[site] || !drawnOpen[site]) return tail;
+        drawnFull[site] = true;
+        flood[tail] = site;
+        return tail + 1;
+    }
+
+    // same status line as PercolationVisualizer.draw, painted over the old one
+    private void drawStatus() {
+        StdDraw.setPenColor(StdDraw.WHITE);
+        StdDraw.filledRectangle(0.5*n, -0.025*n, 0.55*n, 0.024*n);
+        StdDraw.setFont(STATUS_FONT);
+        StdDraw.setPenColor(StdDraw.BLACK);
+        StdDraw.text(0.25*n, -0.025*n, opened + " open sites");
+        if (perc.percolates()) StdDraw.text(0.75*n, -0.025*n, "percolates");
+        else                   StdDraw.text(0.75*n, -0.025*n, "does not percolate");
+    }
+}
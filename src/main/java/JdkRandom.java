@@ -0,0 +1,27 @@
+import java.util.Random;
+
+// java.util.Random behind SiteRandom, for the streams earlier runs used
+public class JdkRandom implements SiteRandom {
+
+  private final Random random;
+
+  public JdkRandom(Random random) {
+    this.random = random;
+  }
+
+  @Override
+  public void setSeed(long seed) {
+    random.setSeed(seed);
+  }
+
+  @Override
+  public long nextLong() {
+    return random.nextLong();
+  }
+
+  @Override
+  public int nextInt(int bound) {
+    return random.nextInt(bound);
+  }
+
+}
@@ -0,0 +1,220 @@
+import java.util.Locale;
+
+// The lattices LatticePercolation and BondPercolation run on. A lattice of size n
+// has n-by-n sites in two dimensions and n-by-n-by-n sites for CUBIC, numbered
+// row-major (x fastest, then y, then z). The first layer (row 0, or plane z = 0) is
+// the top and the last layer the bottom.
+//
+// Every lattice names its neighbors with plain index arithmetic. neighbors() is the
+// general form for tools and tests; the engines have their own loop per lattice.
+// Bonds are numbered site * forwardDegree() + k, where k picks one of the site's
+// forward neighbors, so every bond gets one number and bonds leaving the lattice
+// have none (bondTarget() returns NO_SITE).
+public enum Lattice {
+
+  // 4 neighbors
+  SQUARE {
+    @Override
+    public int neighbors(int n, int site, int[] out) {
+      int row = site / n;
+      int col = site % n;
+      int count = 0;
+      if (row > 0) {
+        out[count++] = site - n;
+      }
+      if (col < n - 1) {
+        out[count++] = site + 1;
+      }
+      if (row < n - 1) {
+        out[count++] = site + n;
+      }
+      if (col > 0) {
+        out[count++] = site - 1;
+      }
+      return count;
+    }
+
+    @Override
+    public int forwardDegree() {
+      return 2;
+    }
+
+    @Override
+    public int bondTarget(int n, int site, int k) {
+      int row = site / n;
+      int col = site % n;
+      if (k == 0) {
+        return col < n - 1 ? site + 1 : NO_SITE;
+      }
+      return row < n - 1 ? site + n : NO_SITE;
+    }
+  },
+
+  // 6 neighbors: the square ones plus the diagonal from lower left to upper right
+  TRIANGULAR {
+    @Override
+    public int neighbors(int n, int site, int[] out) {
+      int count = SQUARE.neighbors(n, site, out);
+      int row = site / n;
+      int col = site % n;
+      if (row > 0 && col < n - 1) {
+        out[count++] = site - n + 1;
+      }
+      if (row < n - 1 && col > 0) {
+        out[count++] = site + n - 1;
+      }
+      return count;
+    }
+
+    @Override
+    public int forwardDegree() {
+      return 3;
+    }
+
+    @Override
+    public int bondTarget(int n, int site, int k) {
+      if (k < 2) {
+        return SQUARE.bondTarget(n, site, k);
+      }
+      int row = site / n;
+      int col = site % n;
+      return row < n - 1 && col > 0 ? site + n - 1 : NO_SITE;
+    }
+  },
+
+  // 3 neighbors, as a brick wall: left, right, and the site above when row + col
+  // is even or the site below when it is odd
+  HONEYCOMB {
+    @Override
+    public int neighbors(int n, int site, int[] out) {
+      int row = site / n;
+      int col = site % n;
+      int count = 0;
+      if (((row + col) & 1) == 0) {
+        if (row > 0) {
+          out[count++] = site - n;
+        }
+      } else if (row < n - 1) {
+        out[count++] = site + n;
+      }
+      if (col < n - 1) {
+        out[count++] = site + 1;
+      }
+      if (col > 0) {
+        out[count++] = site - 1;
+      }
+      return count;
+    }
+
+    @Override
+    public int forwardDegree() {
+      return 2;
+    }
+
+    @Override
+    public int bondTarget(int n, int site, int k) {
+      int row = site / n;
+      int col = site % n;
+      if (k == 0) {
+        return col < n - 1 ? site + 1 : NO_SITE;
+      }
+      return ((row + col) & 1) == 1 && row < n - 1 ? site + n : NO_SITE;
+    }
+  },
+
+  // 6 neighbors in three dimensions
+  CUBIC {
+    @Override
+    public int sites(int n) {
+      checkSize(n, 3);
+      return n * n * n;
+    }
+
+    @Override
+    public int layer(int n) {
+      return n * n;
+    }
+
+    @Override
+    public int neighbors(int n, int site, int[] out) {
+      int plane = n * n;
+      int x = site % n;
+      int y = (site / n) % n;
+      int z = site / plane;
+      int count = 0;
+      if (z > 0) {
+        out[count++] = site - plane;
+      }
+      if (x < n - 1) {
+        out[count++] = site + 1;
+      }
+      if (y < n - 1) {
+        out[count++] = site + n;
+      }
+      if (z < n - 1) {
+        out[count++] = site + plane;
+      }
+      if (y > 0) {
+        out[count++] = site - n;
+      }
+      if (x > 0) {
+        out[count++] = site - 1;
+      }
+      return count;
+    }
+
+    @Override
+    public int forwardDegree() {
+      return 3;
+    }
+
+    @Override
+    public int bondTarget(int n, int site, int k) {
+      int plane = n * n;
+      if (k == 0) {
+        return site % n < n - 1 ? site + 1 : NO_SITE;
+      } else if (k == 1) {
+        return (site / n) % n < n - 1 ? site + n : NO_SITE;
+      }
+      return site / plane < n - 1 ? site + plane : NO_SITE;
+    }
+  };
+
+  public static final int NO_SITE = -1;
+  // most neighbors any lattice has, enough room for neighbors()
+  public static final int MAX_DEGREE = 6;
+
+  private static void checkSize(int n, int dimensions) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("Size must be greater than 0!");
+    }
+    if (Math.pow(n, dimensions) > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Size " + n + " is too large for a " + dimensions + "D lattice");
+    }
+  }
+
+  // number of sites of the lattice of size n
+  public int sites(int n) {
+    checkSize(n, 2);
+    return n * n;
+  }
+
+  // number of sites in the top (and the bottom) layer
+  public int layer(int n) {
+    return n;
+  }
+
+  // writes the neighbors of site into out and returns how many there are
+  public abstract int neighbors(int n, int site, int[] out);
+
+  // bonds numbered per site
+  public abstract int forwardDegree();
+
+  // the other end of bond site * forwardDegree() + k, or NO_SITE
+  public abstract int bondTarget(int n, int site, int k);
+
+  public static Lattice fromName(String name) {
+    return valueOf(name.toUpperCase(Locale.ROOT));
+  }
+
+}
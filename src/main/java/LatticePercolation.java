@@ -0,0 +1,218 @@
+// site percolation on any Lattice. Works like Percolation: the union-find roots
+// carry whether their component touches the top or the bottom layer, so there is no
+// backwash. Sites are given as 0-based lattice indices. Each lattice has its own
+// open loop with the neighbor arithmetic written out, so the hot path makes no call
+// per neighbor other than the union-find itself.
+public class LatticePercolation {
+
+  private static final int OPEN = 1 << 0;
+  private static final int CONNECTED_TO_TOP = 1 << 1;
+  private static final int CONNECTED_TO_BOTTOM = 1 << 2;
+
+  private final Lattice lattice;
+  private final int n;
+  private final int sites;
+  private final CompactUnionFind uf;
+  private final int[] statusOfSites;
+  private final int[] openedSites;
+  private int openSitesCount = 0;
+  private boolean percolates = false;
+
+  // create a lattice of size n, with all sites blocked
+  public LatticePercolation(Lattice lattice, int n) {
+    this.lattice = lattice;
+    this.n = n;
+    this.sites = lattice.sites(n);
+    this.uf = new CompactUnionFind(sites);
+    this.statusOfSites = new int[sites];
+    this.openedSites = new int[sites];
+    for (int i = 0; i < sites; i++) {
+      statusOfSites[i] = initialStatusOf(i);
+    }
+  }
+
+  private int initialStatusOf(int i) {
+    int status = 0;
+    if (i < lattice.layer(n)) {
+      status = status | CONNECTED_TO_TOP;
+    }
+    if (i >= sites - lattice.layer(n)) {
+      status = status | CONNECTED_TO_BOTTOM;
+    }
+    return status;
+  }
+
+  private void validateSite(int site) {
+    if (site < 0 || site >= sites) {
+      throw new IndexOutOfBoundsException("site must be between 0 and " + (sites - 1));
+    }
+  }
+
+  // union site with an open neighbor and return the accumulated status of both components
+  private int unionWithOpenNeighbor(int site, int neighbor, int status) {
+    if ((statusOfSites[neighbor] & OPEN) == 0) {
+      return status;
+    }
+    int statusOfNeighbor = statusOfSites[uf.find(neighbor)];
+    uf.union(site, neighbor);
+    return status | statusOfNeighbor;
+  }
+
+  private int connectSquare(int site, int status) {
+    int row = site / n;
+    int col = site % n;
+    if (row > 0) {
+      status = unionWithOpenNeighbor(site, site - n, status);
+    }
+    if (col < n - 1) {
+      status = unionWithOpenNeighbor(site, site + 1, status);
+    }
+    if (row < n - 1) {
+      status = unionWithOpenNeighbor(site, site + n, status);
+    }
+    if (col > 0) {
+      status = unionWithOpenNeighbor(site, site - 1, status);
+    }
+    return status;
+  }
+
+  private int connectTriangular(int site, int status) {
+    int row = site / n;
+    int col = site % n;
+    if (row > 0) {
+      status = unionWithOpenNeighbor(site, site - n, status);
+      if (col < n - 1) {
+        status = unionWithOpenNeighbor(site, site - n + 1, status);
+      }
+    }
+    if (col < n - 1) {
+      status = unionWithOpenNeighbor(site, site + 1, status);
+    }
+    if (row < n - 1) {
+      status = unionWithOpenNeighbor(site, site + n, status);
+      if (col > 0) {
+        status = unionWithOpenNeighbor(site, site + n - 1, status);
+      }
+    }
+    if (col > 0) {
+      status = unionWithOpenNeighbor(site, site - 1, status);
+    }
+    return status;
+  }
+
+  private int connectHoneycomb(int site, int status) {
+    int row = site / n;
+    int col = site % n;
+    if (((row + col) & 1) == 0) {
+      if (row > 0) {
+        status = unionWithOpenNeighbor(site, site - n, status);
+      }
+    } else if (row < n - 1) {
+      status = unionWithOpenNeighbor(site, site + n, status);
+    }
+    if (col < n - 1) {
+      status = unionWithOpenNeighbor(site, site + 1, status);
+    }
+    if (col > 0) {
+      status = unionWithOpenNeighbor(site, site - 1, status);
+    }
+    return status;
+  }
+
+  private int connectCubic(int site, int status) {
+    int plane = n * n;
+    int x = site % n;
+    int y = (site / n) % n;
+    int z = site / plane;
+    if (z > 0) {
+      status = unionWithOpenNeighbor(site, site - plane, status);
+    }
+    if (x < n - 1) {
+      status = unionWithOpenNeighbor(site, site + 1, status);
+    }
+    if (y < n - 1) {
+      status = unionWithOpenNeighbor(site, site + n, status);
+    }
+    if (z < n - 1) {
+      status = unionWithOpenNeighbor(site, site + plane, status);
+    }
+    if (y > 0) {
+      status = unionWithOpenNeighbor(site, site - n, status);
+    }
+    if (x > 0) {
+      status = unionWithOpenNeighbor(site, site - 1, status);
+    }
+    return status;
+  }
+
+  // open site if it is not open already
+  public void open(int site) {
+    validateSite(site);
+    if ((statusOfSites[site] & OPEN) != 0) {
+      return;
+    }
+    statusOfSites[site] = statusOfSites[site] | OPEN;
+    openedSites[openSitesCount++] = site;
+    int status = statusOfSites[site];
+    switch (lattice) {
+      case SQUARE:
+        status = connectSquare(site, status);
+        break;
+      case TRIANGULAR:
+        status = connectTriangular(site, status);
+        break;
+      case HONEYCOMB:
+        status = connectHoneycomb(site, status);
+        break;
+      default:
+        status = connectCubic(site, status);
+        break;
+    }
+    int root = uf.find(site);
+    statusOfSites[root] = statusOfSites[root] | status;
+    if ((statusOfSites[root] & CONNECTED_TO_TOP) != 0 && (statusOfSites[root] & CONNECTED_TO_BOTTOM) != 0) {
+      this.percolates = true;
+    }
+  }
+
+  // is site open?
+  public boolean isOpen(int site) {
+    validateSite(site);
+    return (statusOfSites[site] & OPEN) != 0;
+  }
+
+  // is site open and connected to the top layer?
+  public boolean isFull(int site) {
+    validateSite(site);
+    return (statusOfSites[site] & OPEN) != 0 && (statusOfSites[uf.find(site)] & CONNECTED_TO_TOP) != 0;
+  }
+
+  public Lattice lattice() {
+    return lattice;
+  }
+
+  public int sites() {
+    return sites;
+  }
+
+  // number of open sites
+  public int numberOfOpenSites() {
+    return openSitesCount;
+  }
+
+  // does the system percolate?
+  public boolean percolates() {
+    return this.percolates;
+  }
+
+  // block every site again, touching only the sites opened since the last reset
+  public void reset() {
+    for (int i = 0; i < openSitesCount; i++) {
+      statusOfSites[openedSites[i]] = initialStatusOf(openedSites[i]);
+    }
+    uf.reset(openedSites, openSitesCount);
+    this.openSitesCount = 0;
+    this.percolates = false;
+  }
+
+}
@@ -0,0 +1,104 @@
+// PercolationStats for the other lattices, site or bond percolation: estimates the
+// fraction of open sites (or open bonds) at which the lattice first percolates.
+// Trial i draws its order from the same (seed, i) stream as in PercolationStats.
+public class LatticeStats {
+
+  private final int trials;
+  private double mean;
+  private double stddev;
+  private double confidenceLo;
+  private double confidenceHi;
+
+  public LatticeStats(Lattice lattice, int n, int trials, boolean bonds, long seed) {
+    if (n <= 0 || trials <= 0) {
+      throw new IllegalArgumentException("both n and trails should be > 0");
+    }
+    this.trials = trials;
+    RunningStats stats = new RunningStats();
+    SiteRandom random = RandomEngine.DEFAULT.create();
+    if (bonds) {
+      BondPercolation p = new BondPercolation(lattice, n);
+      SiteShuffler shuffler = new SiteShuffler(p.bondSlots());
+      for (int i = 0; i < trials; i++) {
+        p.reset();
+        random.setSeed(PercolationStats.trialSeed(seed, i));
+        shuffler.restart(random);
+        do {
+          int bond = shuffler.next();
+          // the shuffled numbers include those naming no bond, which are skipped
+          if (p.isBond(bond)) {
+            p.open(bond);
+          }
+        } while (!p.percolates());
+        stats.add(p.numberOfOpenBonds() / (double) p.bonds());
+      }
+    } else {
+      LatticePercolation p = new LatticePercolation(lattice, n);
+      SiteShuffler shuffler = new SiteShuffler(p.sites());
+      for (int i = 0; i < trials; i++) {
+        p.reset();
+        random.setSeed(PercolationStats.trialSeed(seed, i));
+        shuffler.restart(random);
+        do {
+          p.open(shuffler.next());
+        } while (!p.percolates());
+        stats.add(p.numberOfOpenSites() / (double) p.sites());
+      }
+    }
+    this.mean = stats.mean();
+    this.stddev = stats.stddev();
+    this.confidenceLo = this.mean - stats.confidenceHalfWidth();
+    this.confidenceHi = this.mean + stats.confidenceHalfWidth();
+  }
+
+  private static int toInt(String s) {
+    return Integer.parseInt(s);
+  }
+
+  public int trials() {
+    return this.trials;
+  }
+
+  public double mean() {
+    return this.mean;
+  }
+
+  public double stddev() {
+    return this.stddev;
+  }
+
+  public double confidenceLo() {
+    return this.confidenceLo;
+  }
+
+  public double confidenceHi() {
+    return this.confidenceHi;
+  }
+
+  public static void main(String[] args) {
+    if (args.length < 3) {
+      throw new IllegalArgumentException("required: square|triangular|honeycomb|cubic, n and trials. "
+          + "optional: --bond, --seed S");
+    }
+    Lattice lattice = Lattice.fromName(args[0]);
+    int n = toInt(args[1]);
+    int trials = toInt(args[2]);
+    boolean bonds = false;
+    long seed = System.nanoTime();
+    for (int i = 3; i < args.length; i++) {
+      if ("--bond".equals(args[i])) {
+        bonds = true;
+      } else if ("--seed".equals(args[i]) && i + 1 < args.length) {
+        seed = Long.parseLong(args[++i]);
+      } else {
+        throw new IllegalArgumentException("unknown option: " + args[i]);
+      }
+    }
+    LatticeStats ls = new LatticeStats(lattice, n, trials, bonds, seed);
+    System.out.println(String.format("%-15s = %10.10f", "mean", ls.mean()));
+    System.out.println(String.format("%-15s = %10.10f", "stddev", ls.stddev()));
+    System.out.println(String.format("%-15s = [%10.10f, %10.10f]", "95% confidence interval",
+        ls.confidenceLo(), ls.confidenceHi()));
+  }
+
+}
@@ -0,0 +1,379 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// percolation grid whose state lives outside the Java heap, either in direct
+// buffers or in a memory-mapped file, so grids larger than the heap can be run.
+// Every site is one int: a non-negative value is the parent link of an open site,
+// a negative value marks a root and holds -1 - (rank << 3 | bottom | top | open).
+// A grid can be checkpointed to a file and mapped back in with restore().
+//
+// File layout (little endian): magic, n, open sites, percolates (one int each),
+// then one int per site in row-major order.
+public class MappedPercolation implements PercolationSystem, Closeable {
+
+  private static final int MAGIC = 0x50455243; // "PERC"
+  private static final int HEADER_BYTES = 16;
+  private static final int SEGMENT_SHIFT = 28; // 2^28 sites, 1 GB per buffer
+  private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+  private static final int OPEN = 1 << 0;
+  private static final int CONNECTED_TO_TOP = 1 << 1;
+  private static final int CONNECTED_TO_BOTTOM = 1 << 2;
+  private static final int FLAG_BITS = 3;
+  private static final int FLAG_MASK = (1 << FLAG_BITS) - 1;
+
+  private final int dim;
+  private final ByteBuffer[] segments;
+  private final FileChannel backingFile;
+  private final Path backingPath;
+  private int openSitesCount = 0;
+  private boolean percolates = false;
+
+  // create dim-by-dim grid in off-heap memory, with all sites blocked
+  public MappedPercolation(int n) {
+    validateSize(n);
+    this.dim = n;
+    this.backingFile = null;
+    this.backingPath = null;
+    this.segments = new ByteBuffer[segmentCount(n)];
+    for (int k = 0; k < segments.length; k++) {
+      segments[k] = ByteBuffer.allocateDirect(segmentBytes(n, k)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    setInitialStatus();
+  }
+
+  // create dim-by-dim grid mapped onto the given file, with all sites blocked;
+  // the file is overwritten and holds a valid checkpoint after each checkpoint()
+  public MappedPercolation(int n, Path file) {
+    validateSize(n);
+    this.dim = n;
+    this.backingPath = file;
+    try {
+      this.backingFile = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+      this.segments = map(backingFile, FileChannel.MapMode.READ_WRITE, n);
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot map " + file, e);
+    }
+    setInitialStatus();
+    checkpoint();
+  }
+
+  private MappedPercolation(int n, ByteBuffer[] segments, int openSitesCount, boolean percolates) {
+    this.dim = n;
+    this.backingFile = null;
+    this.backingPath = null;
+    this.segments = segments;
+    this.openSitesCount = openSitesCount;
+    this.percolates = percolates;
+  }
+
+  // map a checkpoint back in; the file is mapped copy-on-write, so opening more
+  // sites does not change the checkpoint itself
+  public static MappedPercolation restore(Path file) {
+    // copy-on-write mappings need a channel opened for writing, though nothing is written
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (channel.read(header) < 0) {
+          break;
+        }
+      }
+      header.flip();
+      if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+        throw new IllegalArgumentException(file + " is not a percolation checkpoint");
+      }
+      int n = header.getInt();
+      int openSitesCount = header.getInt();
+      boolean percolates = header.getInt() != 0;
+      validateSize(n);
+      if (channel.size() < HEADER_BYTES + (long) n * n * 4) {
+        throw new IllegalArgumentException(file + " is truncated");
+      }
+      return new MappedPercolation(n, map(channel, FileChannel.MapMode.PRIVATE, n), openSitesCount, percolates);
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot restore " + file, e);
+    }
+  }
+
+  private static void validateSize(int n) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("Size must be greater than 0!");
+    }
+    if ((long) n * n > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Size must be at most " + (int) Math.sqrt(Integer.MAX_VALUE) + "!");
+    }
+  }
+
+  private static int segmentCount(int n) {
+    return (int) ((((long) n * n) + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+  }
+
+  private static int segmentBytes(int n, int k) {
+    long sites = (long) n * n - ((long) k << SEGMENT_SHIFT);
+    return (int) Math.min(sites, 1L << SEGMENT_SHIFT) * 4;
+  }
+
+  private static ByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, int n) throws IOException {
+    ByteBuffer[] mapped = new ByteBuffer[segmentCount(n)];
+    for (int k = 0; k < mapped.length; k++) {
+      long position = HEADER_BYTES + ((long) k << (SEGMENT_SHIFT + 2));
+      mapped[k] = channel.map(mode, position, segmentBytes(n, k)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    return mapped;
+  }
+
+  private int entryAt(int site) {
+    return segments[site >>> SEGMENT_SHIFT].getInt((site & SEGMENT_MASK) << 2);
+  }
+
+  private void setEntryAt(int site, int entry) {
+    segments[site >>> SEGMENT_SHIFT].putInt((site & SEGMENT_MASK) << 2, entry);
+  }
+
+  // a root entry is negative: -1 - (rank << FLAG_BITS | flags)
+  private static int rootEntry(int rank, int flags) {
+    return -1 - ((rank << FLAG_BITS) | flags);
+  }
+
+  private static int rankOf(int rootEntry) {
+    return (-1 - rootEntry) >>> FLAG_BITS;
+  }
+
+  private static int flagsOf(int rootEntry) {
+    return (-1 - rootEntry) & FLAG_MASK;
+  }
+
+  private int initialEntryOf(int i) {
+    int flags = 0;
+    if (i < dim) {
+      flags = flags | CONNECTED_TO_TOP;
+    }
+    if (i >= dim * (dim - 1)) {
+      flags = flags | CONNECTED_TO_BOTTOM;
+    }
+    return rootEntry(0, flags);
+  }
+
+  private void setInitialStatus() {
+    for (int i = 0; i < dim * dim; i++) {
+      setEntryAt(i, initialEntryOf(i));
+    }
+  }
+
+  // only open sites are ever linked, so any non-root site is open
+  private boolean isOpenSite(int i) {
+    int entry = entryAt(i);
+    return entry >= 0 || (flagsOf(entry) & OPEN) != 0;
+  }
+
+  private int find(int p) {
+    int site = p;
+    int parent = entryAt(site);
+    while (parent >= 0) {
+      int grandParent = entryAt(parent);
+      if (grandParent >= 0) {
+        setEntryAt(site, grandParent);
+        site = grandParent;
+      } else {
+        site = parent;
+      }
+      parent = entryAt(site);
+    }
+    return site;
+  }
+
+  // union by rank, merging the flags of both components into the new root
+  private void union(int p, int q) {
+    int rootP = find(p);
+    int rootQ = find(q);
+    if (rootP == rootQ) {
+      return;
+    }
+    int entryP = entryAt(rootP);
+    int entryQ = entryAt(rootQ);
+    int flags = flagsOf(entryP) | flagsOf(entryQ);
+    if (rankOf(entryP) < rankOf(entryQ)) {
+      setEntryAt(rootP, rootQ);
+      setEntryAt(rootQ, rootEntry(rankOf(entryQ), flags));
+    } else {
+      setEntryAt(rootQ, rootP);
+      setEntryAt(rootP, rootEntry(rankOf(entryP) == rankOf(entryQ) ? rankOf(entryP) + 1 : rankOf(entryP), flags));
+    }
+  }
+
+  private void unionWithOpenNeighbor(int site, int neighbor) {
+    if (isOpenSite(neighbor)) {
+      union(site, neighbor);
+    }
+  }
+
+  private int to1D(int row, int col) {
+    return (row - 1) * dim + (col - 1);
+  }
+
+  private boolean isInvalidIndex(int n) {
+    return n <= 0 || n > dim;
+  }
+
+  private void throwIndexOutOfBounds(String errorFor) {
+    throw new IndexOutOfBoundsException(errorFor + " must be between 1 and " + dim);
+  }
+
+  private void validateIndices(int row, int col) {
+    if (isInvalidIndex(row)) {
+      throwIndexOutOfBounds("row");
+    } else if (isInvalidIndex(col)) {
+      throwIndexOutOfBounds("column");
+    }
+  }
+
+  // open site (row, col) if it is not open already
+  @Override
+  public void open(int row, int col) {
+    validateIndices(row, col);
+    int site = to1D(row, col);
+    if (isOpenSite(site)) {
+      return;
+    }
+    setEntryAt(site, rootEntry(0, flagsOf(entryAt(site)) | OPEN));
+    openSitesCount++;
+    if (row > 1) {
+      unionWithOpenNeighbor(site, site - dim);
+    }
+    if (col < dim) {
+      unionWithOpenNeighbor(site, site + 1);
+    }
+    if (row < dim) {
+      unionWithOpenNeighbor(site, site + dim);
+    }
+    if (col > 1) {
+      unionWithOpenNeighbor(site, site - 1);
+    }
+    int flags = flagsOf(entryAt(find(site)));
+    if ((flags & CONNECTED_TO_TOP) != 0 && (flags & CONNECTED_TO_BOTTOM) != 0) {
+      this.percolates = true;
+    }
+  }
+
+  // is site (row, col) open?
+  @Override
+  public boolean isOpen(int row, int col) {
+    validateIndices(row, col);
+    return isOpenSite(to1D(row, col));
+  }
+
+  // is site (row, col) full?
+  @Override
+  public boolean isFull(int row, int col) {
+    validateIndices(row, col);
+    int site = to1D(row, col);
+    return isOpenSite(site) && (flagsOf(entryAt(find(site))) & CONNECTED_TO_TOP) != 0;
+  }
+
+  // number of open sites
+  @Override
+  public int numberOfOpenSites() {
+    return openSitesCount;
+  }
+
+  // does the system percolate?
+  @Override
+  public boolean percolates() {
+    return this.percolates;
+  }
+
+  // block every site again; rewrites the whole grid, O(n^2)
+  @Override
+  public void reset() {
+    setInitialStatus();
+    this.openSitesCount = 0;
+    this.percolates = false;
+  }
+
+  private ByteBuffer header() {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(MAGIC).putInt(dim).putInt(openSitesCount).putInt(percolates ? 1 : 0);
+    header.flip();
+    return header;
+  }
+
+  // flush a file-backed grid so that its file is a valid checkpoint
+  public void checkpoint() {
+    if (backingFile == null) {
+      throw new IllegalStateException("grid is not backed by a file, use checkpoint(Path)");
+    }
+    try {
+      ByteBuffer header = header();
+      long position = 0;
+      while (header.hasRemaining()) {
+        position += backingFile.write(header, position);
+      }
+      for (ByteBuffer segment : segments) {
+        ((MappedByteBuffer) segment).force();
+      }
+      backingFile.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot checkpoint grid", e);
+    }
+  }
+
+  // Write the current state of the grid to the given file. The state goes to a
+  // temporary file next to it first, which is then moved over it, so that a grid
+  // restored from the file, which still maps it, can be checkpointed back to it.
+  // The own file of a file-backed grid is checkpointed in place instead, as moving
+  // another file over it would leave the grid mapping a deleted one.
+  public void checkpoint(Path file) {
+    Path directory = file.toAbsolutePath().getParent();
+    Path temporary = null;
+    try {
+      if (backingPath != null && Files.exists(file) && Files.isSameFile(file, backingPath)) {
+        checkpoint();
+        return;
+      }
+      temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+        ByteBuffer header = header();
+        while (header.hasRemaining()) {
+          channel.write(header);
+        }
+        for (ByteBuffer segment : segments) {
+          ByteBuffer data = segment.duplicate();
+          data.clear();
+          while (data.hasRemaining()) {
+            channel.write(data);
+          }
+        }
+        channel.force(false);
+      }
+      Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      if (temporary != null) {
+        try {
+          Files.deleteIfExists(temporary);
+        } catch (IOException suppressed) {
+          e.addSuppressed(suppressed);
+        }
+      }
+      throw new UncheckedIOException("cannot checkpoint grid to " + file, e);
+    }
+  }
+
+  // release the backing file; the mapping stays usable but can no longer be checkpointed in place
+  @Override
+  public void close() throws IOException {
+    if (backingFile != null) {
+      backingFile.close();
+    }
+  }
+
+}
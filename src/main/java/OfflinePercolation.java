@@ -0,0 +1,146 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Offline dynamic connectivity for traces that close sites as well as open them.
+// Knowing the whole trace up front, every site is open during a few intervals of
+// events; each interval is put on the O(log T) nodes of a segment tree over the T
+// events that cover it, and a walk down the tree opens the sites of a node on a
+// RollbackPercolation when it enters the node and undoes them when it leaves.
+// At a leaf exactly the sites open after that event are open, so the whole trace
+// takes O(T log T log n) instead of a rebuild of the grid at every close.
+public final class OfflinePercolation {
+
+  private OfflinePercolation() {
+  }
+
+  // Does the grid percolate after each event? An event is a 0-based site index
+  // (row - 1) * n + (col - 1) to open it, or its complement ~index to close it.
+  // Opening an open site and closing a blocked one change nothing.
+  public static boolean[] percolatesAfterEach(int n, int[] events) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("Size must be greater than 0!");
+    }
+    int count = events.length;
+    int leaves = Integer.highestOneBit(Math.max(1, count - 1)) << 1;
+    // the intervals [openedAt, closedAt) in which the sites are open
+    int[] intervalSite = new int[count];
+    int[] intervalFrom = new int[count];
+    int[] intervalTo = new int[count];
+    int intervals = 0;
+    int[] openedAt = new int[n * n];
+    Arrays.fill(openedAt, -1);
+    for (int t = 0; t < count; t++) {
+      int site = events[t] >= 0 ? events[t] : ~events[t];
+      if (site >= n * n) {
+        throw new IndexOutOfBoundsException("site index must be between 0 and " + (n * n - 1));
+      }
+      if (events[t] >= 0 && openedAt[site] < 0) {
+        openedAt[site] = t;
+      } else if (events[t] < 0 && openedAt[site] >= 0) {
+        intervalSite[intervals] = site;
+        intervalFrom[intervals] = openedAt[site];
+        intervalTo[intervals++] = t;
+        openedAt[site] = -1;
+      }
+    }
+    for (int site = 0; site < n * n; site++) {
+      if (openedAt[site] >= 0) {
+        intervalSite[intervals] = site;
+        intervalFrom[intervals] = openedAt[site];
+        intervalTo[intervals++] = count;
+      }
+    }
+
+    // sites of each tree node, counted first and then filled in, node by node
+    int[] start = new int[2 * leaves + 1];
+    for (int i = 0; i < intervals; i++) {
+      for (int lo = intervalFrom[i] + leaves, hi = intervalTo[i] + leaves; lo < hi; lo >>= 1, hi >>= 1) {
+        if ((lo & 1) != 0) {
+          start[lo++ + 1]++;
+        }
+        if ((hi & 1) != 0) {
+          start[--hi + 1]++;
+        }
+      }
+    }
+    for (int node = 1; node <= 2 * leaves; node++) {
+      start[node] += start[node - 1];
+    }
+    int[] sitesOfNodes = new int[start[2 * leaves]];
+    int[] filled = Arrays.copyOf(start, 2 * leaves);
+    for (int i = 0; i < intervals; i++) {
+      for (int lo = intervalFrom[i] + leaves, hi = intervalTo[i] + leaves; lo < hi; lo >>= 1, hi >>= 1) {
+        if ((lo & 1) != 0) {
+          sitesOfNodes[filled[lo++]++] = intervalSite[i];
+        }
+        if ((hi & 1) != 0) {
+          sitesOfNodes[filled[--hi]++] = intervalSite[i];
+        }
+      }
+    }
+
+    boolean[] percolates = new boolean[count];
+    walk(1, leaves, new RollbackPercolation(n), start, sitesOfNodes, percolates);
+    return percolates;
+  }
+
+  private static void walk(int node, int leaves, RollbackPercolation p, int[] start, int[] sitesOfNodes,
+      boolean[] percolates) {
+    int openBefore = p.numberOfOpenSites();
+    for (int i = start[node]; i < start[node + 1]; i++) {
+      p.open(sitesOfNodes[i]);
+    }
+    if (node >= leaves) {
+      if (node - leaves < percolates.length) {
+        percolates[node - leaves] = p.percolates();
+      }
+    } else {
+      walk(2 * node, leaves, p, start, sitesOfNodes, percolates);
+      walk(2 * node + 1, leaves, p, start, sitesOfNodes, percolates);
+    }
+    p.rollback(openBefore);
+  }
+
+  // reads an input file in which a negative row closes the site (-row, col), and
+  // prints the events at which the grid starts or stops to percolate
+  public static void main(String[] args) {
+    if (args.length < 1) {
+      throw new IllegalArgumentException("required: input file");
+    }
+    int n;
+    int[] events = new int[1024];
+    int count = 0;
+    try (SiteReader in = SiteReader.open(Paths.get(args[0]))) {
+      n = in.nextInt();
+      int[] rows = new int[1024];
+      int[] cols = new int[1024];
+      for (int read = in.readSites(rows, cols); read > 0; read = in.readSites(rows, cols)) {
+        if (count + read > events.length) {
+          events = Arrays.copyOf(events, Math.max(2 * events.length, count + read));
+        }
+        for (int i = 0; i < read; i++) {
+          int row = Math.abs(rows[i]);
+          if (row < 1 || row > n || cols[i] < 1 || cols[i] > n) {
+            throw new IndexOutOfBoundsException("row and column must be between 1 and " + n);
+          }
+          int site = (row - 1) * n + (cols[i] - 1);
+          events[count++] = rows[i] > 0 ? site : ~site;
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot read " + args[0], e);
+    }
+    boolean[] percolates = percolatesAfterEach(n, Arrays.copyOf(events, count));
+    boolean previous = false;
+    for (int t = 0; t < count; t++) {
+      if (percolates[t] != previous) {
+        System.out.println("event " + (t + 1) + ": " + (percolates[t] ? "percolates" : "does not percolate"));
+        previous = percolates[t];
+      }
+    }
+    System.out.println(count + " events, " + (previous ? "percolates" : "does not percolate") + " at the end");
+  }
+
+}
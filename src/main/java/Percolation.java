@@ -1,31 +1,69 @@
-import edu.princeton.cs.algs4.WeightedQuickUnionUF;
-
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
-public class Percolation {
+public class Percolation implements PercolationSystem {
 
   private static final int BLOCKED = 1 << 0; // 1
   private static final int OPEN = 1 << 1; // 2
   private static final int CONNECTED_TO_TOP = 1 << 2; // 4
   private static final int CONNECTED_TO_BOTTOM = 1 << 3; // 8
+  private static final int FULL = 1 << 4; // 16, kept per site once full sites are tracked
+  private static final int CONNECTED_TO_LEFT = 1 << 5; // 32
+  private static final int CONNECTED_TO_RIGHT = 1 << 6; // 64
+  private static final int BORDERS = CONNECTED_TO_TOP | CONNECTED_TO_BOTTOM | CONNECTED_TO_LEFT | CONNECTED_TO_RIGHT;
+
+  // openBatch works through its sites in sorted blocks of at most this many sites
+  private static final int BATCH_BLOCK = 1 << 16;
+  private static final int NO_NEIGHBOR = -1;
+  private static final int INACTIVE = -1;
 
   private int dim;
   private int openSitesCount = 0;
-  private WeightedQuickUnionUF wqu;
+  private UnionFind uf;
   private int[] statusOfSites;
+  private int[] openedSites;
   private boolean percolates = false;
+  // the system percolates once a component touches all borders of one of the masks
+  private int spanningMask;
+  private int otherSpanningMask;
+  private boolean tracksFullSites = false;
+  private int fullSitesCount = 0;
+  private int[] fullQueue;
+  private ClusterTracker clusters;
+
+  // scratch space for openBatch, allocated on first use
+  private long[] batchOrder;
+  private int[] batchNeighbors;
+  private int[] localParent;
+  private int[] localStatus;
+  private int[] localIdOfRoot;
+  private int[] rootOfLocalId;
+  private int[] slotOfLocalId;
+  private int localRoots;
 
   // create dim-by-dim grid, with all sites blocked
   public Percolation(int n) {
+    this(n, UnionFindEngine.COMPACT);
+  }
+
+  // create dim-by-dim grid on the given union-find engine, with all sites blocked
+  public Percolation(int n, UnionFindEngine engine) {
+    this(n, engine, Spanning.TOP_BOTTOM);
+  }
+
+  // create dim-by-dim grid that percolates by the given spanning rule, with all sites blocked
+  public Percolation(int n, UnionFindEngine engine, Spanning spanning) {
     if (n <= 0) {
       throw new IllegalArgumentException("Size must be greater than 0!");
     } else {
       this.dim = n;
+      this.spanningMask = spanning == Spanning.LEFT_RIGHT
+          ? CONNECTED_TO_LEFT | CONNECTED_TO_RIGHT : CONNECTED_TO_TOP | CONNECTED_TO_BOTTOM;
+      this.otherSpanningMask = spanning == Spanning.TOP_BOTTOM
+          ? CONNECTED_TO_TOP | CONNECTED_TO_BOTTOM : CONNECTED_TO_LEFT | CONNECTED_TO_RIGHT;
       this.statusOfSites = new int[n * n];
+      this.openedSites = new int[n * n];
       setInitialStatus();
-      wqu = new WeightedQuickUnionUF(n * n);
+      uf = engine.create(n * n);
     }
   }
 
@@ -37,15 +75,30 @@ public class Percolation {
     return (statusOfSites[i] & status) == status;
   }
 
+  private int initialStatusOf(int i) {
+    int status = BLOCKED;
+    if (i >= 0 && i < dim) {
+      status = status | CONNECTED_TO_TOP;
+    }
+    if (i >= (dim * (dim - 1)) && i < (dim * dim)) {
+      status = status | CONNECTED_TO_BOTTOM;
+    }
+    if (i % dim == 0) {
+      status = status | CONNECTED_TO_LEFT;
+    }
+    if (i % dim == dim - 1) {
+      status = status | CONNECTED_TO_RIGHT;
+    }
+    return status;
+  }
+
+  private boolean spans(int status) {
+    return (status & spanningMask) == spanningMask || (status & otherSpanningMask) == otherSpanningMask;
+  }
+
   private void setInitialStatus() {
     for (int i = 0; i < (dim * dim); i++) {
-      statusOfSites[i] = BLOCKED;
-      if (i >= 0 && i < dim) {
-        addStatusAt(i, CONNECTED_TO_TOP);
-      }
-      if (i >= (dim * (dim - 1)) && i < (dim * dim)) {
-        addStatusAt(i, CONNECTED_TO_BOTTOM);
-      }
+      statusOfSites[i] = initialStatusOf(i);
     }
   }
 
@@ -57,14 +110,6 @@ public class Percolation {
     return n <= 0 || n > dim;
   }
 
-  private boolean isValidIndex(int n) {
-    return !isInvalidIndex(n);
-  }
-
-  private boolean isValidSite(int row, int col) {
-    return isValidIndex(row) && isValidIndex(col);
-  }
-
   private void throwIndexOutOfBounds(String errorFor) {
     throw new IndexOutOfBoundsException(errorFor + " must be between 1 and " + dim);
   }
@@ -77,62 +122,345 @@ public class Percolation {
     }
   }
 
-  private void markSiteAsOpen(int row, int col) {
-    addStatusAt(to1D(row, col), OPEN);
+  // an independent copy of source, see fork()
+  private Percolation(Percolation source) {
+    this.dim = source.dim;
+    this.spanningMask = source.spanningMask;
+    this.otherSpanningMask = source.otherSpanningMask;
+    this.statusOfSites = source.statusOfSites.clone();
+    this.openedSites = source.openedSites.clone();
+    this.uf = source.uf.copy();
+    this.openSitesCount = source.openSitesCount;
+    this.percolates = source.percolates;
+    this.tracksFullSites = source.tracksFullSites;
+    this.fullSitesCount = source.fullSitesCount;
+    if (tracksFullSites) {
+      this.fullQueue = new int[dim * dim];
+    }
+    if (source.clusters != null) {
+      trackClusters(source.clusters.hasHistogram());
+    }
   }
 
-  private List<Integer> listOf(int row, int col) {
-    return new ArrayList<>(Arrays.asList(row, col));
+  // union site with an open neighbor and return the accumulated status of both components
+  private int unionWithOpenNeighbor(int site, int neighbor, int status) {
+    if (!hasStatus(neighbor, OPEN)) {
+      return status;
+    }
+    int rootOfNeighbor = uf.find(neighbor);
+    int statusOfNeighbor = statusOfSites[rootOfNeighbor];
+    // the roots are only needed before the union when cluster statistics are kept,
+    // or metrics, which count the unions that merge two components
+    int rootOfSite = clusters == null && !PercolationMetrics.ENABLED ? rootOfNeighbor : uf.find(site);
+    uf.union(site, neighbor);
+    if (rootOfSite != rootOfNeighbor) {
+      if (clusters != null) {
+        clusters.joined(rootOfSite, rootOfNeighbor, uf.find(site));
+      }
+      if (PercolationMetrics.ENABLED) {
+        PercolationMetrics.recordUnion();
+      }
+    }
+    return status | statusOfNeighbor;
   }
 
   private void connectToAdjacentOpenSites(int row, int col) {
-    List<List<Integer>> possibleNeighbors = new ArrayList<>(Arrays.asList(
-        listOf(row - 1, col),
-        listOf(row, col + 1),
-        listOf(row + 1, col),
-        listOf(row, col - 1)
-    ));
-
-    List<List<Integer>> validNeighbors = new ArrayList<>();
-    for (List<Integer> neighbor : possibleNeighbors) {
-      int neighborRow = neighbor.get(0);
-      int neighborCol = neighbor.get(1);
-      if (isValidSite(neighborRow, neighborCol) && isOpen(neighborRow, neighborCol)) {
-        validNeighbors.add(new ArrayList<>(listOf(neighborRow, neighborCol)));
-      }
-    }
-
-    int statusForCurrentSite = 0;
-    for (List<Integer> validNeighbor : validNeighbors) {
-      int validNeighborRow = validNeighbor.get(0);
-      int validNeighborCol = validNeighbor.get(1);
-      int rootOfThisNeighbor = wqu.find(to1D(validNeighborRow, validNeighborCol));
-      int statusOfNeighbor = statusOfSites[rootOfThisNeighbor];
-      statusForCurrentSite = statusForCurrentSite | statusOfNeighbor;
-      wqu.union(to1D(row, col), to1D(validNeighborRow, validNeighborCol));
-    }
-
-    int rootOfCurrentSite = wqu.find(to1D(row, col));
-    statusOfSites[rootOfCurrentSite] = statusOfSites[rootOfCurrentSite] | statusForCurrentSite;
-    statusOfSites[rootOfCurrentSite] = statusOfSites[rootOfCurrentSite] | statusOfSites[to1D(row, col)];
-    if (hasStatus(rootOfCurrentSite, CONNECTED_TO_TOP) && hasStatus(rootOfCurrentSite, CONNECTED_TO_BOTTOM)) {
+    // works on 1D indices only, so that opening a site does no heap allocation
+    int site = to1D(row, col);
+    int statusForCurrentSite = statusOfSites[site];
+    if (clusters != null) {
+      clusters.opened(site);
+    }
+    if (row > 1) {
+      statusForCurrentSite = unionWithOpenNeighbor(site, site - dim, statusForCurrentSite);
+    }
+    if (col < dim) {
+      statusForCurrentSite = unionWithOpenNeighbor(site, site + 1, statusForCurrentSite);
+    }
+    if (row < dim) {
+      statusForCurrentSite = unionWithOpenNeighbor(site, site + dim, statusForCurrentSite);
+    }
+    if (col > 1) {
+      statusForCurrentSite = unionWithOpenNeighbor(site, site - 1, statusForCurrentSite);
+    }
+
+    int rootOfCurrentSite = uf.find(site);
+    // FULL belongs to single sites, it must not spread to the root of a joined component
+    statusOfSites[rootOfCurrentSite] = statusOfSites[rootOfCurrentSite] | (statusForCurrentSite & ~FULL);
+    if (spans(statusOfSites[rootOfCurrentSite])) {
       this.percolates = true;
     }
+    if (tracksFullSites && hasStatus(rootOfCurrentSite, CONNECTED_TO_TOP) && !hasStatus(site, FULL)) {
+      fillFrom(site);
+    }
+  }
+
+  // Marks full every open site reachable from start that is not marked yet. The
+  // components joined by an open are each either marked throughout or not at all,
+  // so the fill stops at the old full sites and visits only the newly full ones:
+  // every site is filled once per trial, O(1) amortized per open.
+  private void fillFrom(int start) {
+    int head = 0;
+    int tail = 0;
+    addStatusAt(start, FULL);
+    fullQueue[tail++] = start;
+    while (head < tail) {
+      int site = fullQueue[head++];
+      int row = site / dim + 1;
+      int col = site % dim + 1;
+      if (row > 1) {
+        tail = enqueueToFill(site - dim, tail);
+      }
+      if (col < dim) {
+        tail = enqueueToFill(site + 1, tail);
+      }
+      if (row < dim) {
+        tail = enqueueToFill(site + dim, tail);
+      }
+      if (col > 1) {
+        tail = enqueueToFill(site - 1, tail);
+      }
+    }
+    fullSitesCount += tail;
+  }
+
+  private int enqueueToFill(int site, int tail) {
+    if (!hasStatus(site, OPEN) || hasStatus(site, FULL)) {
+      return tail;
+    }
+    addStatusAt(site, FULL);
+    fullQueue[tail] = site;
+    return tail + 1;
+  }
+
+  // full sites are only marked once somebody asks for them, so that trials that
+  // never query them do not pay for the marking
+  private void trackFullSites() {
+    if (tracksFullSites) {
+      return;
+    }
+    tracksFullSites = true;
+    if (fullQueue == null) {
+      fullQueue = new int[dim * dim];
+    }
+    for (int i = 0; i < openSitesCount; i++) {
+      int site = openedSites[i];
+      if (!hasStatus(site, FULL) && hasStatus(uf.find(site), CONNECTED_TO_TOP)) {
+        fillFrom(site);
+      }
+    }
   }
 
   // open site (row, col) if it is not open already
   public void open(int row, int col) {
-    // wqu - union, upto 4 calls
+    // uf - union, upto 4 calls
     validateIndices(row, col);
-    if (notOpen(row, col)) {
-      markSiteAsOpen(row, col);
-      openSitesCount++;
+    if (PercolationMetrics.ENABLED) {
+      PercolationMetrics.recordOpen();
+    }
+    if (!hasStatus(to1D(row, col), OPEN)) {
+      addStatusAt(to1D(row, col), OPEN);
+      openedSites[openSitesCount++] = to1D(row, col);
       connectToAdjacentOpenSites(row, col);
     }
   }
 
-  private boolean notOpen(int row, int col) {
-    return !isOpen(row, col);
+  // open the sites indices[from] to indices[to - 1], given as 0-based row-major
+  // indices (row - 1) * n + (col - 1). The indices are validated once for the whole
+  // batch, and each block of the batch is opened sorted by index so that the
+  // neighbor lookups stay close together in memory. Returns the position in
+  // indices of the site that first made the system percolate, as if the sites had
+  // been opened one at a time in the given order, or -1 if the system did not
+  // start percolating during this batch.
+  public int openBatch(int[] indices, int from, int to) {
+    if (from < 0 || from > to || to > indices.length) {
+      throw new IndexOutOfBoundsException("from and to must satisfy 0 <= from <= to <= " + indices.length);
+    }
+    for (int i = from; i < to; i++) {
+      if (indices[i] < 0 || indices[i] >= dim * dim) {
+        throw new IndexOutOfBoundsException("site index must be between 0 and " + (dim * dim - 1));
+      }
+    }
+    if (batchOrder == null) {
+      allocateBatchSpace();
+    }
+    int onset = -1;
+    int block = batchOrder.length;
+    for (int start = from; start < to; start += block) {
+      int size = Math.min(to - start, block);
+      // sort by site, keeping the position in the block in the low bits
+      for (int j = 0; j < size; j++) {
+        batchOrder[j] = ((long) indices[start + j] << 32) | j;
+      }
+      Arrays.sort(batchOrder, 0, size);
+      if (!percolates) {
+        int j = onsetInBlock(size);
+        if (j >= 0) {
+          onset = start + j;
+        }
+      }
+      if (PercolationMetrics.ENABLED) {
+        PercolationMetrics.recordOpens(size);
+      }
+      for (int k = 0; k < size; k++) {
+        int site = (int) (batchOrder[k] >>> 32);
+        if (!hasStatus(site, OPEN)) {
+          addStatusAt(site, OPEN);
+          openedSites[openSitesCount++] = site;
+          connectToAdjacentOpenSites(site / dim + 1, site % dim + 1);
+        }
+      }
+    }
+    return onset;
+  }
+
+  // blocks are a power of two no larger than the grid needs, so that localIdOfRoot
+  // can be indexed by a mask
+  private void allocateBatchSpace() {
+    int block = Math.min(BATCH_BLOCK, Integer.highestOneBit(Math.max(1, dim * dim - 1)) << 1);
+    batchOrder = new long[block];
+    batchNeighbors = new int[4 * block];
+    localParent = new int[5 * block];
+    localStatus = new int[5 * block];
+    localIdOfRoot = new int[8 * block];
+    rootOfLocalId = new int[4 * block];
+    slotOfLocalId = new int[4 * block];
+    Arrays.fill(localIdOfRoot, -1);
+  }
+
+  // Replays a sorted block in its original order, before it is opened, on a small
+  // union-find whose nodes are the block's positions and the components open before
+  // the block that it touches. Returns the position that first percolates, or -1.
+  private int onsetInBlock(int size) {
+    localRoots = 0;
+    for (int k = 0; k < size; k++) {
+      int site = (int) (batchOrder[k] >>> 32);
+      int j = (int) batchOrder[k];
+      localParent[j] = -1;
+      boolean repeated = k > 0 && (int) (batchOrder[k - 1] >>> 32) == site;
+      if (repeated || hasStatus(site, OPEN)) {
+        localStatus[j] = INACTIVE;
+        continue;
+      }
+      localStatus[j] = statusOfSites[site] & BORDERS;
+      int row = site / dim + 1;
+      int col = site % dim + 1;
+      batchNeighbors[4 * j] = row > 1 ? localNodeOf(site - dim, size) : NO_NEIGHBOR;
+      batchNeighbors[4 * j + 1] = col < dim ? localNodeOf(site + 1, size) : NO_NEIGHBOR;
+      batchNeighbors[4 * j + 2] = row < dim ? localNodeOf(site + dim, size) : NO_NEIGHBOR;
+      batchNeighbors[4 * j + 3] = col > 1 ? localNodeOf(site - 1, size) : NO_NEIGHBOR;
+    }
+
+    int onset = -1;
+    for (int j = 0; j < size && onset < 0; j++) {
+      if (localStatus[j] == INACTIVE) {
+        continue;
+      }
+      for (int d = 0; d < 4; d++) {
+        int neighbor = batchNeighbors[4 * j + d];
+        // block neighbors only count once they have been opened, components from before always do
+        if (neighbor != NO_NEIGHBOR && (neighbor >= size || neighbor < j)) {
+          localUnion(j, neighbor);
+        }
+      }
+      if (spans(localStatus[localFind(j)])) {
+        onset = j;
+      }
+    }
+
+    for (int r = 0; r < localRoots; r++) {
+      localIdOfRoot[slotOfLocalId[r]] = -1;
+    }
+    return onset;
+  }
+
+  // local node of a neighbor: its component if it was open before the block, its
+  // first position in the block if it is opened by the block, NO_NEIGHBOR otherwise
+  private int localNodeOf(int neighbor, int size) {
+    if (hasStatus(neighbor, OPEN)) {
+      int root = uf.find(neighbor);
+      int slot = slotOf(root);
+      if (localIdOfRoot[slot] < 0) {
+        int id = localRoots++;
+        localIdOfRoot[slot] = id;
+        rootOfLocalId[id] = root;
+        slotOfLocalId[id] = slot;
+        localParent[size + id] = -1;
+        localStatus[size + id] = statusOfSites[root] & BORDERS;
+      }
+      return size + localIdOfRoot[slot];
+    }
+    int lo = 0;
+    int hi = size;
+    long key = (long) neighbor << 32;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (batchOrder[mid] < key) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    if (lo < size && (int) (batchOrder[lo] >>> 32) == neighbor) {
+      return (int) batchOrder[lo];
+    }
+    return NO_NEIGHBOR;
+  }
+
+  // open-addressing slot of a root in localIdOfRoot
+  private int slotOf(int root) {
+    int mask = localIdOfRoot.length - 1;
+    int slot = (root * 0x9E3779B9) >>> Integer.numberOfLeadingZeros(mask);
+    while (localIdOfRoot[slot] >= 0 && rootOfLocalId[localIdOfRoot[slot]] != root) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private int localFind(int p) {
+    int node = p;
+    while (localParent[node] >= 0) {
+      int grandParent = localParent[localParent[node]];
+      if (grandParent >= 0) {
+        localParent[node] = grandParent;
+      }
+      node = localParent[node];
+    }
+    return node;
+  }
+
+  private void localUnion(int p, int q) {
+    int rootP = localFind(p);
+    int rootQ = localFind(q);
+    if (rootP == rootQ) {
+      return;
+    }
+    if (localParent[rootP] > localParent[rootQ]) {
+      int tmp = rootP;
+      rootP = rootQ;
+      rootQ = tmp;
+    }
+    localParent[rootP] += localParent[rootQ];
+    localParent[rootQ] = rootP;
+    localStatus[rootP] = localStatus[rootP] | localStatus[rootQ];
+  }
+
+  // open the sites (rows[i], cols[i]) in order
+  public void openAll(int[] rows, int[] cols) {
+    if (rows.length != cols.length) {
+      throw new IllegalArgumentException("rows and cols must have the same length");
+    }
+    openAll(rows, cols, rows.length);
+  }
+
+  // open the first count sites (rows[i], cols[i]) in order
+  public void openAll(int[] rows, int[] cols, int count) {
+    if (count < 0 || count > rows.length || count > cols.length) {
+      throw new IndexOutOfBoundsException("count must be between 0 and the length of rows and cols");
+    }
+    for (int i = 0; i < count; i++) {
+      open(rows[i], cols[i]);
+    }
   }
 
   // is site (row, col) open?
@@ -141,11 +469,32 @@ public class Percolation {
     return hasStatus(to1D(row, col), OPEN);
   }
 
-  // is site (row, col) full?
+  // is site (row, col) full? After the first call this reads a per-site bit, O(1)
   public boolean isFull(int row, int col) {
     validateIndices(row, col);
-    int root = wqu.find(to1D(row, col));
-    return hasStatus(root, CONNECTED_TO_TOP) && isOpen(row, col);
+    trackFullSites();
+    return hasStatus(to1D(row, col), FULL);
+  }
+
+  // number of full sites, O(1) after the first call
+  public int numberOfFullSites() {
+    trackFullSites();
+    return fullSitesCount;
+  }
+
+  // Starts keeping cluster statistics, which from then on cost O(1) per open, and
+  // returns them; the tracker is filled in from the sites open so far. Every call
+  // replaces the tracker of the previous one.
+  public ClusterTracker trackClusters(boolean histogram) {
+    ClusterTracker tracker = new ClusterTracker(dim * dim, histogram);
+    tracker.refill(uf, openedSites, openSitesCount);
+    this.clusters = tracker;
+    return tracker;
+  }
+
+  // the n of this n-by-n grid
+  public int n() {
+    return dim;
   }
 
   // number of open sites
@@ -158,6 +507,93 @@ public class Percolation {
     return this.percolates;
   }
 
+  // block every site again, touching only the sites opened since the last reset,
+  // so that one instance can be reused across trials without reallocating
+  public void reset() {
+    for (int i = 0; i < openSitesCount; i++) {
+      statusOfSites[openedSites[i]] = initialStatusOf(openedSites[i]);
+    }
+    uf.reset(openedSites, openSitesCount);
+    if (clusters != null) {
+      clusters.reset(openedSites, openSitesCount);
+    }
+    this.openSitesCount = 0;
+    this.fullSitesCount = 0;
+    this.percolates = false;
+  }
+
+  // The state of a grid, to go back to with restore(). A snapshot is a bulk copy
+  // of the site and union-find arrays, O(n^2) memory traffic however many sites
+  // are open, so branching from it costs a copy rather than a replay of the opens.
+  public static final class Snapshot {
+
+    private final int dim;
+    private final int spanningMask;
+    private final int otherSpanningMask;
+    private final int[] statusOfSites;
+    private final int[] openedSites;
+    private final UnionFind uf;
+    private final boolean percolates;
+    private final boolean tracksFullSites;
+    private final int fullSitesCount;
+
+    private Snapshot(Percolation p) {
+      this.dim = p.dim;
+      this.spanningMask = p.spanningMask;
+      this.otherSpanningMask = p.otherSpanningMask;
+      this.statusOfSites = p.statusOfSites.clone();
+      this.openedSites = Arrays.copyOf(p.openedSites, p.openSitesCount);
+      this.uf = p.uf.copy();
+      this.percolates = p.percolates;
+      this.tracksFullSites = p.tracksFullSites;
+      this.fullSitesCount = p.fullSitesCount;
+    }
+
+    // number of open sites at the time of the snapshot
+    public int numberOfOpenSites() {
+      return openedSites.length;
+    }
+
+  }
+
+  // the current state, which this grid or any grid of the same size, engine and
+  // spanning rule can go back to any number of times
+  public Snapshot snapshot() {
+    return new Snapshot(this);
+  }
+
+  // go back to the state of the snapshot; cluster statistics, if kept, are
+  // recounted from the restored sites
+  public void restore(Snapshot snapshot) {
+    if (snapshot.dim != dim || snapshot.spanningMask != spanningMask
+        || snapshot.otherSpanningMask != otherSpanningMask
+        || snapshot.uf.getClass() != uf.getClass()) {
+      throw new IllegalArgumentException("snapshot of a grid of another size, engine or spanning rule");
+    }
+    if (clusters != null) {
+      clusters.reset(openedSites, openSitesCount);
+    }
+    System.arraycopy(snapshot.statusOfSites, 0, statusOfSites, 0, statusOfSites.length);
+    System.arraycopy(snapshot.openedSites, 0, openedSites, 0, snapshot.openedSites.length);
+    uf.copyFrom(snapshot.uf);
+    this.openSitesCount = snapshot.openedSites.length;
+    this.percolates = snapshot.percolates;
+    // without the FULL bits of the snapshot, they are marked again when next asked for
+    this.tracksFullSites = snapshot.tracksFullSites;
+    this.fullSitesCount = snapshot.fullSitesCount;
+    if (tracksFullSites && fullQueue == null) {
+      fullQueue = new int[dim * dim];
+    }
+    if (clusters != null) {
+      clusters.refill(uf, openedSites, openSitesCount);
+    }
+  }
+
+  // an independent copy of this grid, tracking full sites and clusters if this one does
+  public Percolation fork() {
+    return new Percolation(this);
+  }
+
   // test client (optional)
   public static void main(String[] args) {
 
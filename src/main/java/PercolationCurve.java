@@ -0,0 +1,125 @@
+import java.util.Arrays;
+
+// Newman-Ziff estimate of the percolation probability P(p) of an n-by-n grid.
+// Each trial makes one ordered pass over the sites and records the number of
+// open sites k at which the grid first percolates. Spanning is monotone in k,
+// so the pass stops there and the fraction of trials with first percolation
+// at or below k is the probability Q(k) of percolating with exactly k open
+// sites. P(p) is then the binomial convolution of Q, for any p, without
+// running separate trials per p.
+public class PercolationCurve {
+
+  private static final double NEGLIGIBLE_WEIGHT = 1e-16;
+
+  private final int sites;
+  private final int[] firstPercolation;
+
+  public PercolationCurve(int n, int trials) {
+    this(n, trials, UnionFindEngine.COMPACT, System.nanoTime());
+  }
+
+  public PercolationCurve(int n, int trials, UnionFindEngine engine, long seed) {
+    if (n <= 0 || trials <= 0) {
+      throw new IllegalArgumentException("both n and trials should be > 0");
+    }
+    this.sites = n * n;
+    this.firstPercolation = new int[trials];
+    Percolation p = new Percolation(n, engine);
+    SiteShuffler shuffler = new SiteShuffler(sites);
+    SiteRandom random = RandomEngine.DEFAULT.create();
+    for (int i = 0; i < trials; i++) {
+      p.reset();
+      random.setSeed(PercolationStats.trialSeed(seed, i));
+      shuffler.restart(random);
+      do {
+        int site = shuffler.next();
+        p.open(site / n + 1, site % n + 1);
+      } while (!p.percolates());
+      firstPercolation[i] = p.numberOfOpenSites();
+    }
+    Arrays.sort(firstPercolation);
+  }
+
+  private static int toInt(String s) {
+    return Integer.parseInt(s);
+  }
+
+  // Q(k): probability that the grid percolates with exactly k open sites
+  public double probabilityAtOpenSites(int k) {
+    if (k < 0 || k > sites) {
+      throw new IndexOutOfBoundsException("open sites must be between 0 and " + sites);
+    }
+    // number of trials that first percolated at or below k
+    int lo = 0;
+    int hi = firstPercolation.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (firstPercolation[mid] <= k) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo / (double) firstPercolation.length;
+  }
+
+  // P(p): probability that the grid percolates when each site is open with probability p,
+  // the sum of Q(k) weighted by the binomial distribution B(sites, p). The weights
+  // are built outwards from the mode and cut off once they become negligible.
+  public double probability(double p) {
+    if (p < 0.0 || p > 1.0) {
+      throw new IllegalArgumentException("p must be between 0 and 1");
+    }
+    if (p == 0.0) {
+      return probabilityAtOpenSites(0);
+    }
+    if (p == 1.0) {
+      return probabilityAtOpenSites(sites);
+    }
+    int mode = (int) Math.min(sites, Math.floor((sites + 1) * p));
+    double odds = p / (1.0 - p);
+    double weightSum = 1.0;
+    double value = probabilityAtOpenSites(mode);
+
+    double weight = 1.0;
+    for (int k = mode + 1; k <= sites && weight > NEGLIGIBLE_WEIGHT; k++) {
+      weight = weight * (sites - k + 1) / k * odds;
+      weightSum += weight;
+      value += weight * probabilityAtOpenSites(k);
+    }
+    weight = 1.0;
+    for (int k = mode - 1; k >= 0 && weight > NEGLIGIBLE_WEIGHT; k--) {
+      weight = weight * (k + 1) / (sites - k) / odds;
+      weightSum += weight;
+      value += weight * probabilityAtOpenSites(k);
+    }
+    return value / weightSum;
+  }
+
+  // P(p) at points evenly spaced from 0 to 1
+  public double[] curve(int points) {
+    if (points < 2) {
+      throw new IllegalArgumentException("points should be >= 2");
+    }
+    double[] curve = new double[points];
+    for (int i = 0; i < points; i++) {
+      curve[i] = probability(i / (double) (points - 1));
+    }
+    return curve;
+  }
+
+  // prints the p-sweep as "p P(p)" lines
+  public static void main(String[] args) {
+    if (args.length < 2) {
+      throw new IllegalArgumentException("required: n and trials is required. optional: number of points");
+    }
+    int n = toInt(args[0]);
+    int trials = toInt(args[1]);
+    int points = args.length > 2 ? toInt(args[2]) : 101;
+    double[] curve = new PercolationCurve(n, trials).curve(points);
+    for (int i = 0; i < points; i++) {
+      System.out.println(String.format("%.4f %.6f", i / (double) (points - 1), curve[i]));
+    }
+  }
+
+}
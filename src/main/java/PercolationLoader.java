@@ -0,0 +1,57 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// loads a percolation input file (n, then row col pairs) into a Percolation
+// in batches, and reports the final state without drawing anything
+public final class PercolationLoader {
+
+  private static final int BATCH_SIZE = 1 << 13;
+
+  private PercolationLoader() {
+  }
+
+  public static Percolation load(Path file) {
+    try (SiteReader reader = SiteReader.open(file)) {
+      int n = reader.nextInt();
+      Percolation perc = new Percolation(n);
+      openSites(reader, perc, n);
+      return perc;
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot read " + file, e);
+    }
+  }
+
+  // opens every remaining site of the reader, a batch at a time
+  public static void openSites(SiteReader reader, Percolation perc, int n) {
+    int[] rows = new int[BATCH_SIZE];
+    int[] cols = new int[BATCH_SIZE];
+    int[] sites = new int[BATCH_SIZE];
+    for (int count = reader.readSites(rows, cols); count > 0; count = reader.readSites(rows, cols)) {
+      for (int i = 0; i < count; i++) {
+        if (rows[i] <= 0 || rows[i] > n || cols[i] <= 0 || cols[i] > n) {
+          throw new IndexOutOfBoundsException("row and column must be between 1 and " + n);
+        }
+        sites[i] = (rows[i] - 1) * n + (cols[i] - 1);
+      }
+      perc.openBatch(sites, 0, count);
+    }
+  }
+
+  // prints the final state of each input file
+  public static void main(String[] args) {
+    if (args.length < 1) {
+      throw new IllegalArgumentException("required: one or more input files");
+    }
+    for (String arg : args) {
+      long start = System.nanoTime();
+      Percolation perc = load(Paths.get(arg));
+      double millis = (System.nanoTime() - start) / 1e6;
+      System.out.println(String.format("%s: n = %d, open sites = %d, full sites = %d, %s (%.1f ms)",
+          arg, perc.n(), perc.numberOfOpenSites(), perc.numberOfFullSites(),
+          perc.percolates() ? "percolates" : "does not percolate", millis));
+    }
+  }
+
+}
@@ -0,0 +1,230 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Optional runtime counters for Percolation and PercolationStats, switched on
+// with -Dpercolation.metrics=true. Every call site is guarded by the static final
+// ENABLED flag, so with metrics off the JIT folds the guard away and the hot
+// paths are exactly what they were. With metrics on, start() registers the
+// counters as an MBean and, given -Dpercolation.metrics.period=SECONDS, prints
+// them in the Prometheus text format to stderr at that period.
+//
+// Find path lengths come from CompactUnionFind; the algs4 engine does not expose them.
+public final class PercolationMetrics implements PercolationMetricsMBean {
+
+  public static final boolean ENABLED = Boolean.getBoolean("percolation.metrics");
+
+  static final int HISTOGRAM_BUCKETS = 16;
+
+  private static final PercolationMetrics INSTANCE = new PercolationMetrics();
+  private static final String OBJECT_NAME = "percolation:type=PercolationMetrics";
+
+  private static final LongAdder OPENS = new LongAdder();
+  private static final LongAdder UNIONS = new LongAdder();
+  private static final LongAdder FINDS = new LongAdder();
+  private static final LongAdder FIND_HOPS = new LongAdder();
+  private static final LongAdder[] FIND_HISTOGRAM = new LongAdder[HISTOGRAM_BUCKETS];
+  private static final LongAdder TRIALS = new LongAdder();
+  private static final LongAdder TRIAL_NANOS = new LongAdder();
+  private static final LongAdder TRIAL_BYTES = new LongAdder();
+  // trials whose allocated bytes are known
+  private static final LongAdder TRIALS_WITH_BYTES = new LongAdder();
+  private static volatile long startNanos = System.nanoTime();
+  private static boolean started;
+
+  static {
+    for (int b = 0; b < HISTOGRAM_BUCKETS; b++) {
+      FIND_HISTOGRAM[b] = new LongAdder();
+    }
+  }
+
+  private PercolationMetrics() {
+  }
+
+  public static void recordOpen() {
+    OPENS.increment();
+  }
+
+  public static void recordOpens(int count) {
+    OPENS.add(count);
+  }
+
+  public static void recordUnion() {
+    UNIONS.increment();
+  }
+
+  // a find that followed the given number of parent links
+  public static void recordFind(int hops) {
+    FINDS.increment();
+    FIND_HOPS.add(hops);
+    FIND_HISTOGRAM[bucketOf(hops)].increment();
+  }
+
+  // a trial that took the given time and allocated the given bytes (-1 if unknown)
+  public static void recordTrial(long nanos, long bytes) {
+    TRIALS.increment();
+    TRIAL_NANOS.add(nanos);
+    if (bytes >= 0) {
+      TRIALS_WITH_BYTES.increment();
+      TRIAL_BYTES.add(bytes);
+    }
+  }
+
+  // 0 for 0 hops, then one bucket per power of two
+  static int bucketOf(int hops) {
+    return Math.min(HISTOGRAM_BUCKETS - 1, 32 - Integer.numberOfLeadingZeros(hops));
+  }
+
+  // bytes allocated so far by the current thread, or -1 if the JVM cannot tell
+  public static long threadAllocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+      if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+        return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+
+  public static PercolationMetrics get() {
+    return INSTANCE;
+  }
+
+  // registers the MBean and starts the periodic dump; does nothing unless ENABLED
+  public static synchronized void start() {
+    if (!ENABLED || started) {
+      return;
+    }
+    started = true;
+    try {
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, name);
+      }
+    } catch (JMException e) {
+      throw new IllegalStateException("cannot register " + OBJECT_NAME, e);
+    }
+    long period = Long.getLong("percolation.metrics.period", 0L);
+    if (period > 0) {
+      ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "percolation-metrics");
+        thread.setDaemon(true);
+        return thread;
+      });
+      dumper.scheduleAtFixedRate(() -> System.err.print(INSTANCE.getPrometheusText()), period, period,
+          TimeUnit.SECONDS);
+    }
+  }
+
+  @Override
+  public long getOpens() {
+    return OPENS.sum();
+  }
+
+  @Override
+  public long getUnions() {
+    return UNIONS.sum();
+  }
+
+  @Override
+  public long getFinds() {
+    return FINDS.sum();
+  }
+
+  @Override
+  public double getMeanFindPathLength() {
+    long count = FINDS.sum();
+    return count == 0 ? 0.0 : FIND_HOPS.sum() / (double) count;
+  }
+
+  @Override
+  public long[] getFindPathLengthHistogram() {
+    long[] histogram = new long[HISTOGRAM_BUCKETS];
+    for (int b = 0; b < HISTOGRAM_BUCKETS; b++) {
+      histogram[b] = FIND_HISTOGRAM[b].sum();
+    }
+    return histogram;
+  }
+
+  @Override
+  public long getTrials() {
+    return TRIALS.sum();
+  }
+
+  // trials finished per second of wall time since the last reset
+  @Override
+  public double getTrialsPerSecond() {
+    long elapsed = System.nanoTime() - startNanos;
+    return elapsed <= 0 ? 0.0 : TRIALS.sum() * 1e9 / elapsed;
+  }
+
+  @Override
+  public double getMeanTrialMillis() {
+    long count = TRIALS.sum();
+    return count == 0 ? 0.0 : TRIAL_NANOS.sum() / 1e6 / count;
+  }
+
+  @Override
+  public double getMeanTrialBytes() {
+    long count = TRIALS_WITH_BYTES.sum();
+    return count == 0 ? 0.0 : TRIAL_BYTES.sum() / (double) count;
+  }
+
+  private static void counter(StringBuilder s, String name, long value) {
+    s.append("# TYPE ").append(name).append(" counter\n");
+    s.append(name).append(' ').append(value).append('\n');
+  }
+
+  private static void gauge(StringBuilder s, String name, double value) {
+    s.append("# TYPE ").append(name).append(" gauge\n");
+    s.append(name).append(' ').append(String.format(Locale.ROOT, "%.6f", value)).append('\n');
+  }
+
+  // all counters in the Prometheus text exposition format
+  @Override
+  public String getPrometheusText() {
+    StringBuilder s = new StringBuilder();
+    counter(s, "percolation_opens_total", getOpens());
+    counter(s, "percolation_unions_total", getUnions());
+    s.append("# TYPE percolation_find_path_length histogram\n");
+    long[] histogram = getFindPathLengthHistogram();
+    long cumulative = 0;
+    for (int b = 0; b < HISTOGRAM_BUCKETS - 1; b++) {
+      cumulative += histogram[b];
+      s.append("percolation_find_path_length_bucket{le=\"").append((1 << b) - 1).append("\"} ")
+          .append(cumulative).append('\n');
+    }
+    s.append("percolation_find_path_length_bucket{le=\"+Inf\"} ").append(getFinds()).append('\n');
+    s.append("percolation_find_path_length_sum ").append(FIND_HOPS.sum()).append('\n');
+    s.append("percolation_find_path_length_count ").append(getFinds()).append('\n');
+    counter(s, "percolation_trials_total", getTrials());
+    gauge(s, "percolation_trials_per_second", getTrialsPerSecond());
+    gauge(s, "percolation_trial_mean_millis", getMeanTrialMillis());
+    gauge(s, "percolation_trial_mean_bytes", getMeanTrialBytes());
+    return s.toString();
+  }
+
+  @Override
+  public void reset() {
+    OPENS.reset();
+    UNIONS.reset();
+    FINDS.reset();
+    FIND_HOPS.reset();
+    for (LongAdder bucket : FIND_HISTOGRAM) {
+      bucket.reset();
+    }
+    TRIALS.reset();
+    TRIAL_NANOS.reset();
+    TRIAL_BYTES.reset();
+    TRIALS_WITH_BYTES.reset();
+    startNanos = System.nanoTime();
+  }
+
+}
@@ -0,0 +1,27 @@
+// JMX view of PercolationMetrics, registered as percolation:type=PercolationMetrics
+public interface PercolationMetricsMBean {
+
+  long getOpens();
+
+  long getUnions();
+
+  long getFinds();
+
+  double getMeanFindPathLength();
+
+  // finds whose path had 0, 1, 2-3, 4-7, ... links, the last bucket collecting the rest
+  long[] getFindPathLengthHistogram();
+
+  long getTrials();
+
+  double getTrialsPerSecond();
+
+  double getMeanTrialMillis();
+
+  double getMeanTrialBytes();
+
+  String getPrometheusText();
+
+  void reset();
+
+}
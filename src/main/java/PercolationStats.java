@@ -1,17 +1,32 @@
-import edu.princeton.cs.algs4.StdStats;
-
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Collections;
-import java.util.Deque;
-import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 
 public class PercolationStats {
 
+  // trials run per worker between two checks of the precision target
+  private static final int TRIALS_PER_WORKER_IN_BATCH = 16;
+  // least number of trials before a precision target may stop the run
+  private static final int MIN_TRIALS_FOR_PRECISION = 30;
+  // values of p sampled by --series, 0.00 to 1.00
+  private static final int SERIES_POINTS = 101;
+
   private int n;
   private int trials;
+  private IntFunction<? extends PercolationSystem> grids;
+  private int threads;
+  private long seed;
+  private RandomEngine rng;
+  private double precision;
+  private ClusterSeries series;
   private double mean;
   private double stddev;
   private double confidenceLo;
@@ -19,11 +34,60 @@ public class PercolationStats {
 
 
   public PercolationStats(int n, int trials) {
-    if (n <= 0 || trials <= 0) {
+    this(n, trials, UnionFindEngine.COMPACT);
+  }
+
+  public PercolationStats(int n, int trials, UnionFindEngine engine) {
+    this(n, trials, engine, 1, System.nanoTime());
+  }
+
+  // runs the trials on the given number of worker threads; trial i always draws its
+  // sites from a stream derived from (seed, i), so results do not depend on threads
+  public PercolationStats(int n, int trials, UnionFindEngine engine, int threads, long seed) {
+    this(n, trials, size -> new Percolation(size, engine), threads, seed);
+  }
+
+  // runs the trials on grids built by the given factory, one per worker thread
+  public PercolationStats(int n, int trials, IntFunction<? extends PercolationSystem> grids, int threads, long seed) {
+    this(n, trials, grids, threads, seed, 0.0);
+  }
+
+  // runs at most maxTrials trials, stopping as soon as the half-width of the 95%
+  // confidence interval drops below precision (0 runs all of them); trials() tells
+  // how many were run
+  public PercolationStats(int n, int maxTrials, IntFunction<? extends PercolationSystem> grids, int threads,
+      long seed, double precision) {
+    this(n, maxTrials, grids, threads, seed, precision, RandomEngine.DEFAULT);
+  }
+
+  // draws the sites of every trial from the given random number generator
+  public PercolationStats(int n, int maxTrials, IntFunction<? extends PercolationSystem> grids, int threads,
+      long seed, double precision, RandomEngine rng) {
+    this(n, maxTrials, grids, threads, seed, precision, rng, 0);
+  }
+
+  // also samples the clusters of every trial at seriesPoints evenly spaced values
+  // of p (0 for none), which takes the trials on to n^2 open sites; the grids must
+  // then be Percolation ones, and series() has the samples
+  public PercolationStats(int n, int maxTrials, IntFunction<? extends PercolationSystem> grids, int threads,
+      long seed, double precision, RandomEngine rng, int seriesPoints) {
+    if (n <= 0 || maxTrials <= 0) {
       throw new IllegalArgumentException("both n and trails should be > 0");
     }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("threads should be > 0");
+    }
+    if (precision < 0.0) {
+      throw new IllegalArgumentException("precision should be >= 0");
+    }
     this.n = n;
-    this.trials = trials;
+    this.trials = maxTrials;
+    this.grids = grids;
+    this.threads = threads;
+    this.seed = seed;
+    this.rng = rng;
+    this.precision = precision;
+    this.series = seriesPoints == 0 ? null : new ClusterSeries(seriesPoints);
     execute();
   }
 
@@ -31,42 +95,119 @@ public class PercolationStats {
     return Integer.parseInt(s);
   }
 
-  private List<Map<String, Integer>> buildAllSites() {
-    List<Map<String, Integer>> allSites = new ArrayList<>();
-    for (int row = 1; row <= n; row++) {
-      for (int col = 1; col <= n; col++) {
-        Map<String, Integer> m = new HashMap<>();
-        m.put("row", row);
-        m.put("col", col);
-        allSites.add(m);
+  // seed of the independent random stream used by trial i (SplitMix64 finalizer)
+  static long trialSeed(long seed, int i) {
+    long z = seed + (i + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  // opens sites of p, which must be blocked, in the order of trial i until it
+  // percolates, and returns the fraction of open sites
+  private static double openUntilPercolation(PercolationSystem p, SiteShuffler shuffler, SiteRandom random,
+      int n, long seed, int i) {
+    random.setSeed(trialSeed(seed, i));
+    shuffler.restart(random);
+    do {
+      int site = shuffler.next();
+      p.open(site / n + 1, site % n + 1);
+    } while (!p.percolates());
+    return p.numberOfOpenSites() / (double) (n * n);
+  }
+
+  // runs trial i of a run with the given seed and generator again on p, from the
+  // seed alone, and returns its threshold
+  public static double replayTrial(PercolationSystem p, int n, long seed, int i, RandomEngine rng) {
+    p.reset();
+    return openUntilPercolation(p, new SiteShuffler(n * n), rng.create(), n, seed, i);
+  }
+
+  private static ClusterTracker trackClusters(PercolationSystem p) {
+    if (!(p instanceof Percolation)) {
+      throw new IllegalArgumentException("cluster series need Percolation grids, not " + p.getClass().getName());
+    }
+    return ((Percolation) p).trackClusters(false);
+  }
+
+  private boolean isPreciseEnough(RunningStats stats) {
+    return precision > 0.0 && stats.count() >= MIN_TRIALS_FOR_PRECISION
+        && stats.confidenceHalfWidth() < precision;
+  }
+
+  // runs trials firstTrial to firstTrial + size - 1, leaving trial firstTrial + j's
+  // threshold in batch[j] and its cluster samples, if any, in samples[j]
+  private void runBatch(final Worker[] workers, ExecutorService pool, final double[] batch,
+      final double[][] samples, final int firstTrial, final int size) {
+    final AtomicInteger nextTrial = new AtomicInteger();
+    if (pool == null) {
+      workers[0].runTrials(batch, samples, firstTrial, size, nextTrial);
+      return;
+    }
+    try {
+      List<Future<?>> running = new ArrayList<>();
+      for (final Worker worker : workers) {
+        running.add(pool.submit(() -> worker.runTrials(batch, samples, firstTrial, size, nextTrial)));
       }
+      for (Future<?> r : running) {
+        r.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted while running trials", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("trial failed", e.getCause());
     }
-    return allSites;
   }
 
+  // trials run in batches, but their thresholds are folded into the running
+  // statistics in trial order, so the results and the stopping point depend
+  // only on the seed and not on the number of threads
   private void execute() {
-    int[] numberOfOpenSites = new int[trials];
-    double[] thresholds = new double[trials];
-    for (int i = 0; i < trials; i++) {
-      Percolation p = new Percolation(n);
-      List<Map<String, Integer>> allSites = buildAllSites();
-      Collections.shuffle(allSites);
-      Deque<Map<String, Integer>> shuffledSites = new ArrayDeque<>(allSites);
-      do {
-        Map<String, Integer> nextSite = shuffledSites.pop();
-        int row = nextSite.get("row");
-        int col = nextSite.get("col");
-        p.open(row, col);
-      } while (!p.percolates());
-      numberOfOpenSites[i] = p.numberOfOpenSites();
-      thresholds[i] = numberOfOpenSites[i] / (double) (n * n);
-    }
-    this.mean = StdStats.mean(thresholds);
-    this.stddev = StdStats.stddev(thresholds);
+    Worker[] workers = new Worker[threads];
+    for (int w = 0; w < threads; w++) {
+      workers[w] = new Worker();
+    }
+    ExecutorService pool = threads == 1 ? null : Executors.newFixedThreadPool(threads);
+    double[] batch = new double[(int) Math.min(trials, (long) threads * TRIALS_PER_WORKER_IN_BATCH)];
+    double[][] samples = series == null ? null
+        : new double[batch.length][series.points() * ClusterSeries.VALUES_PER_POINT];
+    RunningStats stats = new RunningStats();
+    try {
+      int started = 0;
+      while (started < trials && !isPreciseEnough(stats)) {
+        int size = Math.min(batch.length, trials - started);
+        runBatch(workers, pool, batch, samples, started, size);
+        for (int j = 0; j < size && !isPreciseEnough(stats); j++) {
+          stats.add(batch[j]);
+          if (series != null) {
+            series.add(samples[j]);
+          }
+        }
+        started += size;
+      }
+    } finally {
+      if (pool != null) {
+        pool.shutdownNow();
+      }
+    }
+    this.trials = (int) stats.count();
+    this.mean = stats.mean();
+    this.stddev = stats.stddev();
     this.confidenceLo = this.mean - ((1.96 * stddev()) / (Math.sqrt(this.trials)));
     this.confidenceHi = this.mean + ((1.96 * stddev()) / (Math.sqrt(this.trials)));
   }
 
+  // number of trials run
+  public int trials() {
+    return this.trials;
+  }
+
+  // cluster samples of the trials run, or null without seriesPoints
+  public ClusterSeries series() {
+    return this.series;
+  }
+
   public double mean() {
     return this.mean;
   }
@@ -97,13 +238,147 @@ public class PercolationStats {
     return s.toString();
   }
 
+  // a worker's own grid, site buffer and random stream, reused across trials
+  private final class Worker {
+
+    private final PercolationSystem p = grids.apply(n);
+    private final SiteShuffler shuffler = new SiteShuffler(n * n);
+    private final SiteRandom random = rng.create();
+    private final ClusterTracker clusters = series == null ? null : trackClusters(p);
+
+    private double runTrial(int i, double[] samples) {
+      if (PercolationMetrics.ENABLED) {
+        long start = System.nanoTime();
+        long allocated = PercolationMetrics.threadAllocatedBytes();
+        double threshold = openUntilPercolation(i, samples);
+        long bytes = allocated < 0 ? -1 : PercolationMetrics.threadAllocatedBytes() - allocated;
+        PercolationMetrics.recordTrial(System.nanoTime() - start, bytes);
+        return threshold;
+      }
+      return openUntilPercolation(i, samples);
+    }
+
+    private double openUntilPercolation(int i, double[] samples) {
+      p.reset();
+      if (clusters == null) {
+        return PercolationStats.openUntilPercolation(p, shuffler, random, n, seed, i);
+      }
+      // the same sites in the same order, only on past percolation
+      random.setSeed(trialSeed(seed, i));
+      shuffler.restart(random);
+      return ClusterSeries.openAndSample((Percolation) p, clusters, shuffler, n, series.points(), samples);
+    }
+
+    // claims the next unstarted trial of the batch until all are done
+    private void runTrials(double[] batch, double[][] samples, int firstTrial, int size, AtomicInteger nextTrial) {
+      for (int j = nextTrial.getAndIncrement(); j < size; j = nextTrial.getAndIncrement()) {
+        batch[j] = runTrial(firstTrial + j, samples == null ? null : samples[j]);
+      }
+    }
+
+  }
+
   public static void main(String[] args) {
-    if (args.length < 2) {
-      throw new IllegalArgumentException("required: n and trials is required.");
+    if (args.length < 1) {
+      throw new IllegalArgumentException("required: n, and trials unless --precision is given. "
+          + "optional: --uf algs4|compact, --grid standard|compact|mapped|periodic, "
+          + "--layout row-major|tiled|morton, --threads N, --precision P, "
+          + "--spanning top-bottom|left-right|any, --wrap horizontal|vertical|either|both, --series FILE, "
+          + "--seed S, --rng jdk|splitmix64|xoshiro256, --trial I");
     }
     int n = toInt(args[0]);
-    int trials = toInt(args[1]);
-    PercolationStats ps = new PercolationStats(n, trials);
+    int firstOption = args.length > 1 && !args[1].startsWith("--") ? 2 : 1;
+    int trials = firstOption == 2 ? toInt(args[1]) : Integer.MAX_VALUE;
+    UnionFindEngine engine = UnionFindEngine.COMPACT;
+    String grid = "standard";
+    Spanning spanning = Spanning.TOP_BOTTOM;
+    Wrapping wrapping = Wrapping.EITHER;
+    SiteLayout layout = SiteLayout.ROW_MAJOR;
+    int threads = 1;
+    double precision = 0.0;
+    String series = null;
+    long seed = System.nanoTime();
+    RandomEngine rng = RandomEngine.DEFAULT;
+    int replay = -1;
+    for (int i = firstOption; i < args.length; i++) {
+      if ("--uf".equals(args[i]) && i + 1 < args.length) {
+        engine = UnionFindEngine.fromName(args[++i]);
+      } else if ("--grid".equals(args[i]) && i + 1 < args.length) {
+        grid = args[++i];
+        if (!"standard".equals(grid) && !"compact".equals(grid) && !"mapped".equals(grid)
+            && !"periodic".equals(grid)) {
+          throw new IllegalArgumentException("unknown grid: " + grid);
+        }
+      } else if ("--layout".equals(args[i]) && i + 1 < args.length) {
+        layout = SiteLayout.fromName(args[++i]);
+      } else if ("--spanning".equals(args[i]) && i + 1 < args.length) {
+        spanning = Spanning.fromName(args[++i]);
+      } else if ("--wrap".equals(args[i]) && i + 1 < args.length) {
+        wrapping = Wrapping.fromName(args[++i]);
+      } else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+        threads = toInt(args[++i]);
+      } else if ("--seed".equals(args[i]) && i + 1 < args.length) {
+        seed = Long.parseLong(args[++i]);
+      } else if ("--rng".equals(args[i]) && i + 1 < args.length) {
+        rng = RandomEngine.fromName(args[++i]);
+      } else if ("--trial".equals(args[i]) && i + 1 < args.length) {
+        replay = toInt(args[++i]);
+      } else if ("--series".equals(args[i]) && i + 1 < args.length) {
+        series = args[++i];
+      } else if ("--precision".equals(args[i]) && i + 1 < args.length) {
+        precision = Double.parseDouble(args[++i]);
+      } else {
+        throw new IllegalArgumentException("unknown option: " + args[i]);
+      }
+    }
+    if (trials == Integer.MAX_VALUE && precision == 0.0 && replay < 0) {
+      throw new IllegalArgumentException("trials is required without --precision");
+    }
+    if (series != null && !"standard".equals(grid)) {
+      throw new IllegalArgumentException("--series needs the standard grid, not " + grid);
+    }
+    IntFunction<? extends PercolationSystem> grids;
+    // the compact, mapped and periodic grids carry their own union-find, so --uf does not apply
+    // to them; --spanning is for the standard grid, --layout for the compact one and --wrap
+    // for the periodic one
+    if ("compact".equals(grid)) {
+      final SiteLayout sites = layout;
+      grids = size -> new CompactPercolation(size, sites);
+    } else if ("mapped".equals(grid)) {
+      grids = MappedPercolation::new;
+    } else if ("periodic".equals(grid)) {
+      final Wrapping wrap = wrapping;
+      grids = size -> new PeriodicPercolation(size, wrap);
+    } else {
+      final UnionFindEngine uf = engine;
+      final Spanning span = spanning;
+      grids = size -> new Percolation(size, uf, span);
+    }
+    if (replay >= 0) {
+      double threshold = replayTrial(grids.apply(n), n, seed, replay, rng);
+      System.out.println(String.format("%-15s = %10.10f", "trial " + replay, threshold));
+      return;
+    }
+    PercolationMetrics.start();
+    PercolationStats ps = new PercolationStats(n, trials, grids, threads, seed, precision, rng,
+        series == null ? 0 : SERIES_POINTS);
     System.out.println(ps.getStats());
+    System.out.println(String.format("%-15s = %d", "seed", seed));
+    if (precision > 0.0) {
+      System.out.println(String.format("%-15s = %d", "trials", ps.trials()));
+    }
+    if ("compact".equals(grid)) {
+      System.out.println(String.format("%-15s = %10.4f", "bytes per site", CompactPercolation.bytesPerSite(n, layout)));
+    }
+    if (series != null) {
+      try {
+        ps.series().write(Paths.get(series));
+      } catch (IOException e) {
+        throw new UncheckedIOException("cannot write " + series, e);
+      }
+    }
+    if (PercolationMetrics.ENABLED) {
+      System.out.print(PercolationMetrics.get().getPrometheusText());
+    }
   }
 }
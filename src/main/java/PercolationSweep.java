@@ -0,0 +1,283 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// runs PercolationStats for every (n, trials, seed) of a sweep in one JVM, on a
+// fixed pool of worker threads, and appends each result to a CSV or JSON lines
+// file (chosen by the .jsonl extension) as soon as it is ready. Jobs already in
+// the file are skipped, so an interrupted sweep resumes where it stopped:
+//   java PercolationSweep --n 100:1000:100 --trials 200 --seeds 1,2,3 --out sweep.csv
+public final class PercolationSweep {
+
+  private static final String CSV_HEADER = "n,trials,seed,mean,stddev,confidenceLo,confidenceHi,millis";
+  private static final Pattern JSON_FIELD = Pattern.compile("\"(n|trials|seed)\":(-?\\d+)");
+
+  // one PercolationStats run of the sweep
+  public static final class Job {
+
+    private final int n;
+    private final int trials;
+    private final long seed;
+
+    public Job(int n, int trials, long seed) {
+      if (n <= 0 || trials <= 0) {
+        throw new IllegalArgumentException("both n and trials should be > 0");
+      }
+      this.n = n;
+      this.trials = trials;
+      this.seed = seed;
+    }
+
+    public int n() {
+      return n;
+    }
+
+    public int trials() {
+      return trials;
+    }
+
+    public long seed() {
+      return seed;
+    }
+
+    private String key() {
+      return n + "," + trials + "," + seed;
+    }
+  }
+
+  private final List<Job> jobs;
+  private final UnionFindEngine engine;
+  private final int threads;
+
+  public PercolationSweep(List<Job> jobs, UnionFindEngine engine, int threads) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("threads should be > 0");
+    }
+    this.jobs = new ArrayList<>(jobs);
+    this.engine = engine;
+    this.threads = threads;
+  }
+
+  // every combination of the given n values, trial counts and seeds
+  public static List<Job> jobs(int[] ns, int[] trials, long[] seeds) {
+    List<Job> jobs = new ArrayList<>();
+    for (int n : ns) {
+      for (int t : trials) {
+        for (long seed : seeds) {
+          jobs.add(new Job(n, t, seed));
+        }
+      }
+    }
+    return jobs;
+  }
+
+  // "a,b,c" or the inclusive range "from:to[:step]"
+  static long[] parseRange(String spec) {
+    String[] bounds = spec.split(":");
+    if (bounds.length == 1) {
+      String[] values = spec.split(",");
+      long[] parsed = new long[values.length];
+      for (int i = 0; i < values.length; i++) {
+        parsed[i] = Long.parseLong(values[i].trim());
+      }
+      return parsed;
+    }
+    if (bounds.length > 3) {
+      throw new IllegalArgumentException("range must be from:to[:step], got " + spec);
+    }
+    long from = Long.parseLong(bounds[0].trim());
+    long to = Long.parseLong(bounds[1].trim());
+    long step = bounds.length == 3 ? Long.parseLong(bounds[2].trim()) : 1;
+    if (step <= 0 || to < from) {
+      throw new IllegalArgumentException("range must have from <= to and step > 0, got " + spec);
+    }
+    long[] parsed = new long[(int) ((to - from) / step + 1)];
+    for (int i = 0; i < parsed.length; i++) {
+      parsed[i] = from + i * step;
+    }
+    return parsed;
+  }
+
+  static int[] parseIntRange(String spec) {
+    long[] values = parseRange(spec);
+    int[] parsed = new int[values.length];
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] < Integer.MIN_VALUE || values[i] > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException(values[i] + " is out of range in " + spec);
+      }
+      parsed[i] = (int) values[i];
+    }
+    return parsed;
+  }
+
+  private static boolean isJsonLines(Path output) {
+    return output.getFileName().toString().endsWith(".jsonl");
+  }
+
+  // keys of the jobs whose results are complete lines of the output file
+  private static Set<String> finished(Path output) throws IOException {
+    Set<String> done = new HashSet<>();
+    for (String line : Files.readAllLines(output, StandardCharsets.UTF_8)) {
+      if (isJsonLines(output)) {
+        Matcher field = JSON_FIELD.matcher(line);
+        String n = null;
+        String trials = null;
+        String seed = null;
+        while (field.find()) {
+          if ("n".equals(field.group(1))) {
+            n = field.group(2);
+          } else if ("trials".equals(field.group(1))) {
+            trials = field.group(2);
+          } else {
+            seed = field.group(2);
+          }
+        }
+        if (n != null && trials != null && seed != null) {
+          done.add(n + "," + trials + "," + seed);
+        }
+      } else if (!line.isEmpty() && !line.equals(CSV_HEADER)) {
+        String[] fields = line.split(",");
+        if (fields.length == CSV_HEADER.split(",").length) {
+          done.add(fields[0] + "," + fields[1] + "," + fields[2]);
+        }
+      }
+    }
+    return done;
+  }
+
+  // cuts off a last line left half written by an interrupted sweep
+  private static void dropPartialLine(Path output) throws IOException {
+    byte[] bytes = Files.readAllBytes(output);
+    int end = bytes.length;
+    while (end > 0 && bytes[end - 1] != '\n') {
+      end--;
+    }
+    if (end < bytes.length) {
+      try (FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE)) {
+        channel.truncate(end);
+      }
+    }
+  }
+
+  // JSON has no NaN, which is what the stddev of a single trial is
+  private static String jsonNumber(double value) {
+    return Double.isNaN(value) || Double.isInfinite(value) ? "null" : String.format(Locale.ROOT, "%.10f", value);
+  }
+
+  private static String format(Job job, PercolationStats stats, long millis, boolean json) {
+    if (json) {
+      return String.format(Locale.ROOT,
+          "{\"n\":%d,\"trials\":%d,\"seed\":%d,\"mean\":%s,\"stddev\":%s,"
+          + "\"confidenceLo\":%s,\"confidenceHi\":%s,\"millis\":%d}",
+          job.n, job.trials, job.seed, jsonNumber(stats.mean()), jsonNumber(stats.stddev()),
+          jsonNumber(stats.confidenceLo()), jsonNumber(stats.confidenceHi()), millis);
+    }
+    return String.format(Locale.ROOT, "%d,%d,%d,%.10f,%.10f,%.10f,%.10f,%d", job.n, job.trials, job.seed,
+        stats.mean(), stats.stddev(), stats.confidenceLo(), stats.confidenceHi(), millis);
+  }
+
+  // runs every job not yet in output, appending one line per job in the order they
+  // finish; returns the number of jobs run
+  public int run(Path output) throws IOException {
+    boolean json = isJsonLines(output);
+    Set<String> done = new HashSet<>();
+    if (Files.exists(output)) {
+      dropPartialLine(output);
+      done = finished(output);
+    }
+    List<Job> pending = new ArrayList<>();
+    for (Job job : jobs) {
+      if (done.add(job.key())) {
+        pending.add(job);
+      }
+    }
+    boolean header = !json && (!Files.exists(output) || Files.size(output) == 0);
+
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+      if (header) {
+        writer.write(CSV_HEADER);
+        writer.newLine();
+        writer.flush();
+      }
+      CompletionService<String> results = new ExecutorCompletionService<>(pool);
+      for (final Job job : pending) {
+        // each job runs single threaded, the pool is what spreads the sweep over the cores
+        results.submit(() -> {
+          long start = System.nanoTime();
+          PercolationStats stats = new PercolationStats(job.n, job.trials, engine, 1, job.seed);
+          return format(job, stats, (System.nanoTime() - start) / 1000000, json);
+        });
+      }
+      for (int i = 0; i < pending.size(); i++) {
+        writer.write(results.take().get());
+        writer.newLine();
+        writer.flush();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted while running the sweep", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("sweep job failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    return pending.size();
+  }
+
+  public static void main(String[] args) {
+    int[] ns = null;
+    int[] trials = null;
+    long[] seeds = {1L};
+    Path output = null;
+    UnionFindEngine engine = UnionFindEngine.COMPACT;
+    int threads = Runtime.getRuntime().availableProcessors();
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      if ("--n".equals(args[i])) {
+        ns = parseIntRange(args[i + 1]);
+      } else if ("--trials".equals(args[i])) {
+        trials = parseIntRange(args[i + 1]);
+      } else if ("--seeds".equals(args[i])) {
+        seeds = parseRange(args[i + 1]);
+      } else if ("--out".equals(args[i])) {
+        output = Paths.get(args[i + 1]);
+      } else if ("--uf".equals(args[i])) {
+        engine = UnionFindEngine.fromName(args[i + 1]);
+      } else if ("--threads".equals(args[i])) {
+        threads = Integer.parseInt(args[i + 1]);
+      } else {
+        throw new IllegalArgumentException("unknown option: " + args[i]);
+      }
+    }
+    if (ns == null || trials == null || output == null || args.length % 2 != 0) {
+      throw new IllegalArgumentException("required: --n N|a,b|from:to[:step], --trials T|..., --out file.csv|file.jsonl. "
+          + "optional: --seeds S|a,b|from:to, --uf algs4|compact, --threads N");
+    }
+    PercolationMetrics.start();
+    try {
+      int run = new PercolationSweep(jobs(ns, trials, seeds), engine, threads).run(output);
+      System.out.println(run + " jobs run, results in " + output);
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot write " + output, e);
+    }
+  }
+}
@@ -0,0 +1,23 @@
+// the operations PercolationStats needs from a percolation grid, so that the
+// trials can run on any of the grid implementations
+public interface PercolationSystem {
+
+  // open site (row, col) if it is not open already
+  void open(int row, int col);
+
+  // is site (row, col) open?
+  boolean isOpen(int row, int col);
+
+  // is site (row, col) full?
+  boolean isFull(int row, int col);
+
+  // number of open sites
+  int numberOfOpenSites();
+
+  // does the system percolate?
+  boolean percolates();
+
+  // block every site again
+  void reset();
+
+}
@@ -1,7 +1,7 @@
 /******************************************************************************
  *  Compilation:  javac PercolationVisualizer.java
- *  Execution:    java PercolationVisualizer input.txt
- *  Dependencies: Percolation.java
+ *  Execution:    java PercolationVisualizer input.txt [delay]
+ *  Dependencies: Percolation.java IncrementalPercolationRenderer.java
  *
  *  This program takes the name of a file as a command-line argument.
  *  From that file, it
@@ -14,6 +14,11 @@
  *  open sites (that aren't full) in white, and blocked sites in black,
  *  with with site (1, 1) in the upper left-hand corner.
  *
+ *  Only the sites that changed are repainted after each open. The
+ *  optional delay (in milliseconds, default 100) sets the animation
+ *  speed; at the end the time spent per frame, excluding the delay,
+ *  is printed.
+ *
  ******************************************************************************/
 
 import java.awt.Font;
@@ -27,7 +32,7 @@ public class PercolationVisualizer {
     private static final int DELAY = 100;
 
     // draw n-by-n percolation system
-    public static void draw(Percolation perc, int n) {
+    public static void draw(PercolationSystem perc, int n) {
         StdDraw.clear();
         StdDraw.setPenColor(StdDraw.BLACK);
         StdDraw.setXscale(-0.05*n, 1.05*n);
@@ -64,22 +69,36 @@ public class PercolationVisualizer {
     public static void main(String[] args) {
         In in = new In(args[0]);      // input file
         int n = in.readInt();         // n-by-n percolation system
+        int delay = DELAY;
+        if (args.length > 1) delay = Integer.parseInt(args[1]);
 
         // turn on animation mode
         StdDraw.enableDoubleBuffering();
 
         // repeatedly read in sites to open and draw resulting system
         Percolation perc = new Percolation(n);
-        draw(perc, n);
+        IncrementalPercolationRenderer renderer = new IncrementalPercolationRenderer(perc, n);
         StdDraw.show();
-        StdDraw.pause(DELAY);
+        StdDraw.pause(delay);
+        int frames = 0;
+        long totalNanos = 0;
+        long maxNanos = 0;
         while (!in.isEmpty()) {
             int i = in.readInt();
             int j = in.readInt();
+            long start = System.nanoTime();
             perc.open(i, j);
-            draw(perc, n);
+            renderer.opened(i, j);
             StdDraw.show();
-            StdDraw.pause(DELAY);
+            long frameNanos = System.nanoTime() - start;
+            frames++;
+            totalNanos += frameNanos;
+            maxNanos = Math.max(maxNanos, frameNanos);
+            StdDraw.pause(delay);
+        }
+        if (frames > 0) {
+            System.out.printf("%d frames, %.3f ms/frame mean, %.3f ms max%n",
+                              frames, totalNanos / 1e6 / frames, maxNanos / 1e6);
         }
     }
 }
@@ -0,0 +1,219 @@
+import java.util.Arrays;
+
+// Percolation on an n-by-n torus: the grid has no borders, every row and column
+// wraps around, and the system percolates once a cluster wraps around the torus
+// (Machta, Newman and Ziff). Periodic boundaries remove the border effects, so
+// threshold estimates converge much faster in n than with top-bottom spanning.
+//
+// Wrapping is found inside the union-find. Next to its parent link every site
+// keeps its offset (dx, dy) from its parent, in the plane the torus unrolls to;
+// a root has offset 0. Joining two sites that are already in one cluster closes
+// a loop, and if the offsets around the loop do not cancel, the loop winds around
+// the torus and the cluster wraps in the direction of the nonzero component.
+public class PeriodicPercolation implements PercolationSystem {
+
+  private static final int OPEN = 1 << 0;
+  private static final int WRAPS_HORIZONTALLY = 1 << 1;
+  private static final int WRAPS_VERTICALLY = 1 << 2;
+
+  private final int dim;
+  private final int[] parent;
+  private final int[] offsetX;
+  private final int[] offsetY;
+  private final int[] statusOfSites;
+  private final int[] openedSites;
+  private final int wrappingMask;
+  private final boolean needsAllOfMask;
+  private int openSitesCount = 0;
+  private boolean percolates = false;
+  // offset of the site last passed to find() from its root
+  private int foundX;
+  private int foundY;
+
+  // create dim-by-dim torus that percolates once a cluster wraps either way
+  public PeriodicPercolation(int n) {
+    this(n, Wrapping.EITHER);
+  }
+
+  public PeriodicPercolation(int n, Wrapping wrapping) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("Size must be greater than 0!");
+    }
+    this.dim = n;
+    this.parent = new int[n * n];
+    this.offsetX = new int[n * n];
+    this.offsetY = new int[n * n];
+    this.statusOfSites = new int[n * n];
+    this.openedSites = new int[n * n];
+    Arrays.fill(parent, -1);
+    switch (wrapping) {
+      case HORIZONTAL:
+        this.wrappingMask = WRAPS_HORIZONTALLY;
+        break;
+      case VERTICAL:
+        this.wrappingMask = WRAPS_VERTICALLY;
+        break;
+      default:
+        this.wrappingMask = WRAPS_HORIZONTALLY | WRAPS_VERTICALLY;
+        break;
+    }
+    this.needsAllOfMask = wrapping != Wrapping.EITHER;
+  }
+
+  // root of p, with path halving; leaves the offset of p from the root in foundX, foundY
+  private int find(int p) {
+    int site = p;
+    int x = 0;
+    int y = 0;
+    while (parent[site] >= 0) {
+      int up = parent[site];
+      int grandParent = parent[up];
+      if (grandParent >= 0) {
+        offsetX[site] += offsetX[up];
+        offsetY[site] += offsetY[up];
+        parent[site] = grandParent;
+      }
+      x += offsetX[site];
+      y += offsetY[site];
+      site = parent[site];
+    }
+    foundX = x;
+    foundY = y;
+    return site;
+  }
+
+  // joins site p with the open site q one step (dx, dy) away from it
+  private void union(int p, int q, int dx, int dy) {
+    int rootP = find(p);
+    int px = foundX;
+    int py = foundY;
+    int rootQ = find(q);
+    // offset of rootQ from rootP when q is placed (dx, dy) from p
+    int rx = px + dx - foundX;
+    int ry = py + dy - foundY;
+    if (rootP == rootQ) {
+      if (rx != 0) {
+        statusOfSites[rootP] = statusOfSites[rootP] | WRAPS_HORIZONTALLY;
+      }
+      if (ry != 0) {
+        statusOfSites[rootP] = statusOfSites[rootP] | WRAPS_VERTICALLY;
+      }
+      return;
+    }
+    // sizes are stored negated, so the larger component has the smaller entry
+    if (parent[rootP] <= parent[rootQ]) {
+      parent[rootP] += parent[rootQ];
+      parent[rootQ] = rootP;
+      offsetX[rootQ] = rx;
+      offsetY[rootQ] = ry;
+      statusOfSites[rootP] = statusOfSites[rootP] | statusOfSites[rootQ];
+    } else {
+      parent[rootQ] += parent[rootP];
+      parent[rootP] = rootQ;
+      offsetX[rootP] = -rx;
+      offsetY[rootP] = -ry;
+      statusOfSites[rootQ] = statusOfSites[rootQ] | statusOfSites[rootP];
+    }
+  }
+
+  private void unionWithOpenNeighbor(int site, int neighbor, int dx, int dy) {
+    if ((statusOfSites[neighbor] & OPEN) != 0) {
+      union(site, neighbor, dx, dy);
+    }
+  }
+
+  private int to1D(int row, int col) {
+    return (row - 1) * dim + (col - 1);
+  }
+
+  private boolean isInvalidIndex(int n) {
+    return n <= 0 || n > dim;
+  }
+
+  private void throwIndexOutOfBounds(String errorFor) {
+    throw new IndexOutOfBoundsException(errorFor + " must be between 1 and " + dim);
+  }
+
+  private void validateIndices(int row, int col) {
+    if (isInvalidIndex(row)) {
+      throwIndexOutOfBounds("row");
+    } else if (isInvalidIndex(col)) {
+      throwIndexOutOfBounds("column");
+    }
+  }
+
+  // open site (row, col) if it is not open already
+  @Override
+  public void open(int row, int col) {
+    validateIndices(row, col);
+    int site = to1D(row, col);
+    if ((statusOfSites[site] & OPEN) != 0) {
+      return;
+    }
+    statusOfSites[site] = OPEN;
+    openedSites[openSitesCount++] = site;
+    int last = dim * (dim - 1);
+    unionWithOpenNeighbor(site, row > 1 ? site - dim : site + last, 0, -1);
+    unionWithOpenNeighbor(site, col < dim ? site + 1 : site - dim + 1, 1, 0);
+    unionWithOpenNeighbor(site, row < dim ? site + dim : site - last, 0, 1);
+    unionWithOpenNeighbor(site, col > 1 ? site - 1 : site + dim - 1, -1, 0);
+    int status = statusOfSites[find(site)];
+    if (needsAllOfMask ? (status & wrappingMask) == wrappingMask : (status & wrappingMask) != 0) {
+      this.percolates = true;
+    }
+  }
+
+  // is site (row, col) open?
+  @Override
+  public boolean isOpen(int row, int col) {
+    validateIndices(row, col);
+    return (statusOfSites[to1D(row, col)] & OPEN) != 0;
+  }
+
+  // a torus has no top, so a site is full when its cluster wraps around it
+  @Override
+  public boolean isFull(int row, int col) {
+    validateIndices(row, col);
+    int site = to1D(row, col);
+    return (statusOfSites[site] & OPEN) != 0
+        && (statusOfSites[find(site)] & (WRAPS_HORIZONTALLY | WRAPS_VERTICALLY)) != 0;
+  }
+
+  // does the cluster of site (row, col) wrap horizontally, vertically?
+  public boolean wrapsHorizontally(int row, int col) {
+    validateIndices(row, col);
+    return (statusOfSites[find(to1D(row, col))] & WRAPS_HORIZONTALLY) != 0;
+  }
+
+  public boolean wrapsVertically(int row, int col) {
+    validateIndices(row, col);
+    return (statusOfSites[find(to1D(row, col))] & WRAPS_VERTICALLY) != 0;
+  }
+
+  // number of open sites
+  @Override
+  public int numberOfOpenSites() {
+    return openSitesCount;
+  }
+
+  // does a cluster wrap around the torus as asked?
+  @Override
+  public boolean percolates() {
+    return this.percolates;
+  }
+
+  // block every site again, touching only the sites opened since the last reset
+  @Override
+  public void reset() {
+    for (int i = 0; i < openSitesCount; i++) {
+      int site = openedSites[i];
+      parent[site] = -1;
+      offsetX[site] = 0;
+      offsetY[site] = 0;
+      statusOfSites[site] = 0;
+    }
+    this.openSitesCount = 0;
+    this.percolates = false;
+  }
+
+}
@@ -0,0 +1,38 @@
+import java.util.Locale;
+import java.util.Random;
+
+// the random number generators trials can draw their sites from
+public enum RandomEngine {
+
+  JDK {
+    @Override
+    public SiteRandom create() {
+      return new JdkRandom(new Random());
+    }
+  },
+
+  SPLITMIX64 {
+    @Override
+    public SiteRandom create() {
+      return new SplitMix64(0L);
+    }
+  },
+
+  XOSHIRO256 {
+    @Override
+    public SiteRandom create() {
+      return new Xoshiro256(0L);
+    }
+  };
+
+  // used by PercolationStats and the tools that replay its trials
+  public static final RandomEngine DEFAULT = XOSHIRO256;
+
+  // a generator to be seeded with setSeed() before use
+  public abstract SiteRandom create();
+
+  public static RandomEngine fromName(String name) {
+    return valueOf(name.toUpperCase(Locale.ROOT));
+  }
+
+}
@@ -0,0 +1,242 @@
+// Percolation that can go back: undo() closes the site opened last, close()
+// any open site. The union-find is weighted quick-union without path compression,
+// so find() is O(log n) and every union changes exactly one parent link, one size
+// and one status, which go on a log and are put back in reverse order by undo().
+// An undo costs O(1) per union it reverts, closing a site costs undoing the opens
+// made after it and opening them again.
+public class RollbackPercolation implements PercolationSystem {
+
+  private static final int OPEN = 1 << 0;
+  private static final int CONNECTED_TO_TOP = 1 << 1;
+  private static final int CONNECTED_TO_BOTTOM = 1 << 2;
+  private static final int SPANS = CONNECTED_TO_TOP | CONNECTED_TO_BOTTOM;
+  private static final int NOT_YET = -1;
+
+  private final int dim;
+  // a non-negative entry is the parent of the site, a negative entry marks a root
+  // and holds minus the size of its component
+  private final int[] parent;
+  private final int[] statusOfSites;
+  // open sites in the order they were opened, and the position of each in it
+  private final int[] openedSites;
+  private final int[] positionOfSite;
+  // length of the log before each open
+  private final int[] logLengthBefore;
+  // per union: the root hung below another, its entry before and the old status of the new root
+  private final int[] logChild;
+  private final int[] logChildEntry;
+  private final int[] logRootStatus;
+  private int logLength = 0;
+  private int openSitesCount = 0;
+  // number of open sites when the system began to percolate
+  private int percolatedAt = NOT_YET;
+
+  // create n-by-n grid, with all sites blocked
+  public RollbackPercolation(int n) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("Size must be greater than 0!");
+    }
+    this.dim = n;
+    this.parent = new int[n * n];
+    this.statusOfSites = new int[n * n];
+    this.openedSites = new int[n * n];
+    this.positionOfSite = new int[n * n];
+    this.logLengthBefore = new int[n * n];
+    // every union joins two components of open sites, so there are fewer than n^2
+    this.logChild = new int[n * n];
+    this.logChildEntry = new int[n * n];
+    this.logRootStatus = new int[n * n];
+    for (int site = 0; site < n * n; site++) {
+      parent[site] = -1;
+      statusOfSites[site] = initialStatusOf(site);
+    }
+  }
+
+  private int initialStatusOf(int site) {
+    int status = 0;
+    if (site < dim) {
+      status = status | CONNECTED_TO_TOP;
+    }
+    if (site >= dim * (dim - 1)) {
+      status = status | CONNECTED_TO_BOTTOM;
+    }
+    return status;
+  }
+
+  private int find(int p) {
+    int site = p;
+    while (parent[site] >= 0) {
+      site = parent[site];
+    }
+    return site;
+  }
+
+  private void union(int p, int q) {
+    int rootP = find(p);
+    int rootQ = find(q);
+    if (rootP == rootQ) {
+      return;
+    }
+    // sizes are stored negated, so the larger component has the smaller entry
+    if (parent[rootP] > parent[rootQ]) {
+      int tmp = rootP;
+      rootP = rootQ;
+      rootQ = tmp;
+    }
+    logChild[logLength] = rootQ;
+    logChildEntry[logLength] = parent[rootQ];
+    logRootStatus[logLength] = statusOfSites[rootP];
+    logLength++;
+    parent[rootP] += parent[rootQ];
+    parent[rootQ] = rootP;
+    statusOfSites[rootP] = statusOfSites[rootP] | statusOfSites[rootQ];
+  }
+
+  private void unionWithOpenNeighbor(int site, int neighbor) {
+    if ((statusOfSites[neighbor] & OPEN) != 0) {
+      union(site, neighbor);
+    }
+  }
+
+  private int to1D(int row, int col) {
+    return (row - 1) * dim + (col - 1);
+  }
+
+  private boolean isInvalidIndex(int n) {
+    return n <= 0 || n > dim;
+  }
+
+  private void throwIndexOutOfBounds(String errorFor) {
+    throw new IndexOutOfBoundsException(errorFor + " must be between 1 and " + dim);
+  }
+
+  private void validateIndices(int row, int col) {
+    if (isInvalidIndex(row)) {
+      throwIndexOutOfBounds("row");
+    } else if (isInvalidIndex(col)) {
+      throwIndexOutOfBounds("column");
+    }
+  }
+
+  // open site (row, col) if it is not open already
+  @Override
+  public void open(int row, int col) {
+    validateIndices(row, col);
+    open(to1D(row, col));
+  }
+
+  // open the 0-based site (row - 1) * n + (col - 1), without validation
+  void open(int site) {
+    if ((statusOfSites[site] & OPEN) != 0) {
+      return;
+    }
+    logLengthBefore[openSitesCount] = logLength;
+    positionOfSite[site] = openSitesCount;
+    openedSites[openSitesCount++] = site;
+    statusOfSites[site] = statusOfSites[site] | OPEN;
+    int row = site / dim;
+    int col = site % dim;
+    if (row > 0) {
+      unionWithOpenNeighbor(site, site - dim);
+    }
+    if (col < dim - 1) {
+      unionWithOpenNeighbor(site, site + 1);
+    }
+    if (row < dim - 1) {
+      unionWithOpenNeighbor(site, site + dim);
+    }
+    if (col > 0) {
+      unionWithOpenNeighbor(site, site - 1);
+    }
+    if (percolatedAt == NOT_YET && (statusOfSites[find(site)] & SPANS) == SPANS) {
+      percolatedAt = openSitesCount;
+    }
+  }
+
+  // close the site opened last; returns its 0-based index (row - 1) * n + (col - 1)
+  public int undo() {
+    if (openSitesCount == 0) {
+      throw new IllegalStateException("no open site to undo");
+    }
+    int site = openedSites[openSitesCount - 1];
+    rollback(openSitesCount - 1);
+    return site;
+  }
+
+  // undo opens until only the first openSites of them are left
+  public void rollback(int openSites) {
+    if (openSites < 0 || openSites > openSitesCount) {
+      throw new IllegalArgumentException("open sites must be between 0 and " + openSitesCount);
+    }
+    if (openSites == openSitesCount) {
+      return;
+    }
+    int keep = logLengthBefore[openSites];
+    while (logLength > keep) {
+      logLength--;
+      int child = logChild[logLength];
+      int root = parent[child];
+      parent[root] -= logChildEntry[logLength];
+      parent[child] = logChildEntry[logLength];
+      statusOfSites[root] = logRootStatus[logLength];
+    }
+    while (openSitesCount > openSites) {
+      int site = openedSites[--openSitesCount];
+      statusOfSites[site] = statusOfSites[site] & ~OPEN;
+    }
+    if (percolatedAt > openSitesCount) {
+      percolatedAt = NOT_YET;
+    }
+  }
+
+  // close site (row, col) if it is open, as if it had never been opened
+  public void close(int row, int col) {
+    validateIndices(row, col);
+    int site = to1D(row, col);
+    if ((statusOfSites[site] & OPEN) == 0) {
+      return;
+    }
+    int position = positionOfSite[site];
+    int end = openSitesCount;
+    // the opens after it are undone with it and made again in their order; each
+    // moves one place down in openedSites, after it has been read from there
+    rollback(position);
+    for (int i = position + 1; i < end; i++) {
+      open(openedSites[i]);
+    }
+  }
+
+  // is site (row, col) open?
+  @Override
+  public boolean isOpen(int row, int col) {
+    validateIndices(row, col);
+    return (statusOfSites[to1D(row, col)] & OPEN) != 0;
+  }
+
+  // is site (row, col) full?
+  @Override
+  public boolean isFull(int row, int col) {
+    validateIndices(row, col);
+    int site = to1D(row, col);
+    return (statusOfSites[site] & OPEN) != 0 && (statusOfSites[find(site)] & CONNECTED_TO_TOP) != 0;
+  }
+
+  // number of open sites
+  @Override
+  public int numberOfOpenSites() {
+    return openSitesCount;
+  }
+
+  // does the system percolate?
+  @Override
+  public boolean percolates() {
+    return percolatedAt != NOT_YET;
+  }
+
+  // block every site again, by undoing every open
+  @Override
+  public void reset() {
+    rollback(0);
+  }
+
+}
@@ -0,0 +1,38 @@
+// streaming mean and variance (Welford's algorithm), so statistics over any
+// number of trials take constant memory. Matches StdStats: stddev() is the
+// sample standard deviation and is NaN for fewer than two values.
+public class RunningStats {
+
+  private long count = 0;
+  private double mean = 0.0;
+  private double sumOfSquaredDeviations = 0.0;
+
+  public void add(double x) {
+    count++;
+    double delta = x - mean;
+    mean += delta / count;
+    sumOfSquaredDeviations += delta * (x - mean);
+  }
+
+  public long count() {
+    return count;
+  }
+
+  public double mean() {
+    return count == 0 ? Double.NaN : mean;
+  }
+
+  public double variance() {
+    return sumOfSquaredDeviations / (count - 1);
+  }
+
+  public double stddev() {
+    return Math.sqrt(variance());
+  }
+
+  // half-width of the 95% confidence interval for the mean
+  public double confidenceHalfWidth() {
+    return 1.96 * stddev() / Math.sqrt(count);
+  }
+
+}
@@ -0,0 +1,125 @@
+import java.util.Locale;
+
+// How a grid stores site (row, col), 0-based here, in its arrays. Row-major puts
+// a site's vertical neighbors n entries away, so on large grids nearly every
+// row +- 1 lookup lands on another cache line and another page. The other
+// layouts keep the sites of small square blocks together.
+public enum SiteLayout {
+
+  // site (row, col) at row * n + col; the stride is n
+  ROW_MAJOR {
+    @Override
+    int stride(int n) {
+      return n;
+    }
+
+    @Override
+    long sites(int n) {
+      return (long) n * n;
+    }
+
+    @Override
+    int index(int row, int col, int stride) {
+      return row * stride + col;
+    }
+
+    @Override
+    int rowOf(int index, int stride) {
+      return index / stride;
+    }
+  },
+
+  // TILE-by-TILE tiles in row-major order, each row-major inside and 4 KB of
+  // ints, so the four neighbors of a site are on one page unless it lies on the
+  // edge of its tile; the stride is the number of tiles per row
+  TILED {
+    @Override
+    int stride(int n) {
+      return (n + TILE - 1) >>> TILE_SHIFT;
+    }
+
+    @Override
+    long sites(int n) {
+      long side = (long) stride(n) << TILE_SHIFT;
+      return side * side;
+    }
+
+    @Override
+    int index(int row, int col, int stride) {
+      int tile = (row >>> TILE_SHIFT) * stride + (col >>> TILE_SHIFT);
+      return (tile << (2 * TILE_SHIFT)) | ((row & (TILE - 1)) << TILE_SHIFT) | (col & (TILE - 1));
+    }
+
+    @Override
+    int rowOf(int index, int stride) {
+      int tile = index >>> (2 * TILE_SHIFT);
+      return ((tile / stride) << TILE_SHIFT) | ((index >>> TILE_SHIFT) & (TILE - 1));
+    }
+  },
+
+  // Morton (Z-order) curve, the bits of row and col interleaved, which keeps
+  // blocks of every power-of-two size together. The grid is padded to a power of
+  // two side, up to almost four times the sites for n just above one.
+  MORTON {
+    @Override
+    int stride(int n) {
+      return 0;
+    }
+
+    @Override
+    long sites(int n) {
+      long side = Integer.highestOneBit(Math.max(1, n - 1)) << 1;
+      return n == 1 ? 1 : side * side;
+    }
+
+    @Override
+    int index(int row, int col, int stride) {
+      return (spread(row) << 1) | spread(col);
+    }
+
+    @Override
+    int rowOf(int index, int stride) {
+      return compact(index >>> 1);
+    }
+  };
+
+  private static final int TILE_SHIFT = 5;
+  private static final int TILE = 1 << TILE_SHIFT;
+
+  // the bits of x at the even positions
+  private static int spread(int x) {
+    int bits = x & 0xFFFF;
+    bits = (bits | (bits << 8)) & 0x00FF00FF;
+    bits = (bits | (bits << 4)) & 0x0F0F0F0F;
+    bits = (bits | (bits << 2)) & 0x33333333;
+    bits = (bits | (bits << 1)) & 0x55555555;
+    return bits;
+  }
+
+  // the even bits of x, packed together
+  private static int compact(int x) {
+    int bits = x & 0x55555555;
+    bits = (bits | (bits >>> 1)) & 0x33333333;
+    bits = (bits | (bits >>> 2)) & 0x0F0F0F0F;
+    bits = (bits | (bits >>> 4)) & 0x00FF00FF;
+    bits = (bits | (bits >>> 8)) & 0x0000FFFF;
+    return bits;
+  }
+
+  // the value index() and rowOf() need for an n-by-n grid
+  abstract int stride(int n);
+
+  // length of the arrays of an n-by-n grid, including any padding
+  abstract long sites(int n);
+
+  // array index of site (row, col), both 0-based
+  abstract int index(int row, int col, int stride);
+
+  // 0-based row of the site at the given array index
+  abstract int rowOf(int index, int stride);
+
+  public static SiteLayout fromName(String name) {
+    return valueOf(name.toUpperCase(Locale.ROOT).replace('-', '_'));
+  }
+
+}
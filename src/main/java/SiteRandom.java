@@ -0,0 +1,29 @@
+// random numbers for drawing sites, the small part of java.util.Random (or Java 17's
+// RandomGenerator) the trials need. Each worker owns one instance and reseeds it
+// for every trial with PercolationStats.trialSeed(seed, trial), which splits one
+// run seed into independent per-trial streams.
+public interface SiteRandom {
+
+  void setSeed(long seed);
+
+  long nextLong();
+
+  // uniform in [0, bound), by Lemire's multiply-shift method, which needs a division
+  // only in the rare case that the first draw lands in the biased range
+  default int nextInt(int bound) {
+    if (bound <= 0) {
+      throw new IllegalArgumentException("bound must be positive");
+    }
+    long product = (nextLong() >>> 32) * bound;
+    long low = product & 0xFFFFFFFFL;
+    if (low < bound) {
+      long threshold = (0x100000000L - bound) % bound;
+      while (low < threshold) {
+        product = (nextLong() >>> 32) * bound;
+        low = product & 0xFFFFFFFFL;
+      }
+    }
+    return (int) (product >>> 32);
+  }
+
+}
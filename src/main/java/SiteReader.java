@@ -0,0 +1,117 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+// reads the integers of a percolation input file (n, then row col pairs)
+// straight from a byte buffer, without creating a String per token
+public class SiteReader implements Closeable {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final InputStream in;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int position = 0;
+  private int limit = 0;
+
+  public SiteReader(InputStream in) {
+    this.in = in;
+  }
+
+  public static SiteReader open(Path file) {
+    try {
+      return new SiteReader(Files.newInputStream(file));
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot open " + file, e);
+    }
+  }
+
+  private boolean fill() {
+    try {
+      limit = Math.max(0, in.read(buffer, 0, buffer.length));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    position = 0;
+    return limit > 0;
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+  }
+
+  // skips whitespace; false at the end of input
+  private boolean skipWhitespace() {
+    while (true) {
+      if (position == limit && !fill()) {
+        return false;
+      }
+      if (!isWhitespace(buffer[position])) {
+        return true;
+      }
+      position++;
+    }
+  }
+
+  public boolean hasNextInt() {
+    return skipWhitespace();
+  }
+
+  public int nextInt() {
+    if (!skipWhitespace()) {
+      throw new NoSuchElementException("no more integers");
+    }
+    boolean negative = buffer[position] == '-';
+    if (negative) {
+      position++;
+    }
+    long value = 0;
+    int digits = 0;
+    while (position < limit || fill()) {
+      byte b = buffer[position];
+      if (b < '0' || b > '9') {
+        if (!isWhitespace(b)) {
+          throw new IllegalArgumentException("not an integer: unexpected '" + (char) b + "'");
+        }
+        break;
+      }
+      value = value * 10 + (b - '0');
+      if (value > Integer.MAX_VALUE + 1L) {
+        throw new IllegalArgumentException("integer out of range");
+      }
+      digits++;
+      position++;
+    }
+    if (digits == 0) {
+      throw new IllegalArgumentException("not an integer: missing digits");
+    }
+    value = negative ? -value : value;
+    if (value > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("integer out of range");
+    }
+    return (int) value;
+  }
+
+  // reads up to rows.length (row, col) pairs; returns how many were read, 0 at the end
+  public int readSites(int[] rows, int[] cols) {
+    int count = 0;
+    while (count < rows.length && hasNextInt()) {
+      rows[count] = nextInt();
+      if (!hasNextInt()) {
+        throw new IllegalArgumentException("row " + rows[count] + " has no column");
+      }
+      cols[count] = nextInt();
+      count++;
+    }
+    return count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+}
@@ -0,0 +1,60 @@
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+// random order of the sites 0 to size-1, produced by a lazy Fisher-Yates shuffle:
+// each next() does one swap, so a trial only pays for the sites it draws.
+// The buffer is reused across trials; restart() undoes the swaps of the
+// previous pass so every pass starts from the identity order and a given
+// random stream always yields the same sequence.
+public class SiteShuffler {
+
+  private final int[] sites;
+  private final int[] swappedWith;
+  private int drawn = 0;
+  private SiteRandom random;
+
+  public SiteShuffler(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Size must be greater than 0!");
+    }
+    this.sites = new int[size];
+    this.swappedWith = new int[size];
+    for (int i = 0; i < size; i++) {
+      sites[i] = i;
+    }
+  }
+
+  // start a new pass drawing from the given random stream
+  public void restart(Random r) {
+    restart(new JdkRandom(r));
+  }
+
+  public void restart(SiteRandom r) {
+    for (int i = drawn - 1; i >= 0; i--) {
+      swap(i, swappedWith[i]);
+    }
+    this.drawn = 0;
+    this.random = r;
+  }
+
+  public boolean hasNext() {
+    return drawn < sites.length;
+  }
+
+  public int next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException("all sites have been drawn");
+    }
+    int j = drawn + random.nextInt(sites.length - drawn);
+    swappedWith[drawn] = j;
+    swap(drawn, j);
+    return sites[drawn++];
+  }
+
+  private void swap(int i, int j) {
+    int tmp = sites[i];
+    sites[i] = sites[j];
+    sites[j] = tmp;
+  }
+
+}
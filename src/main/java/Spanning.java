@@ -0,0 +1,20 @@
+import java.util.Locale;
+
+// which crossing of an open-boundary grid counts as percolation
+public enum Spanning {
+
+  // an open path from the top row to the bottom row, the classic rule
+  TOP_BOTTOM,
+
+  // an open path from the left column to the right column
+  LEFT_RIGHT,
+
+  // either of the two
+  ANY;
+
+  // accepts the option spelling, e.g. "top-bottom"
+  public static Spanning fromName(String name) {
+    return valueOf(name.toUpperCase(Locale.ROOT).replace('-', '_'));
+  }
+
+}
@@ -0,0 +1,30 @@
+// SplitMix64 (Steele, Lea and Flood): a 64-bit counter run through a mixing
+// function. Fast and good enough for shuffling, and the generator Xoshiro256 seeds from.
+public class SplitMix64 implements SiteRandom {
+
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  private long state;
+
+  public SplitMix64(long seed) {
+    this.state = seed;
+  }
+
+  @Override
+  public void setSeed(long seed) {
+    this.state = seed;
+  }
+
+  @Override
+  public long nextLong() {
+    state += GOLDEN_GAMMA;
+    return mix(state);
+  }
+
+  static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+}
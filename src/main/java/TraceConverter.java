@@ -0,0 +1,82 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// converts between the text input files in percolation/ and binary site traces:
+//   java TraceConverter to-trace input.txt output.trace [--deflate]
+//   java TraceConverter to-text input.trace output.txt
+//   java TraceConverter replay input.trace
+public final class TraceConverter {
+
+  private TraceConverter() {
+  }
+
+  public static void toTrace(Path text, Path trace, boolean deflate) throws IOException {
+    try (SiteReader reader = SiteReader.open(text);
+         TraceWriter writer = new TraceWriter(trace, reader.nextInt(), deflate)) {
+      while (reader.hasNextInt()) {
+        writer.write(reader.nextInt(), reader.nextInt());
+      }
+    }
+  }
+
+  public static void toText(Path trace, Path text) throws IOException {
+    try (TraceReader reader = new TraceReader(trace);
+         BufferedWriter writer = Files.newBufferedWriter(text, StandardCharsets.US_ASCII)) {
+      int n = reader.n();
+      String format = "%" + Integer.toString(n).length() + "d %" + Integer.toString(n).length() + "d";
+      writer.write(Integer.toString(n));
+      writer.newLine();
+      while (reader.hasNext()) {
+        int site = reader.nextSite();
+        writer.write(String.format(format, site / n + 1, site % n + 1));
+        writer.newLine();
+      }
+    }
+  }
+
+  public static Percolation replay(Path trace) throws IOException {
+    try (TraceReader reader = new TraceReader(trace)) {
+      Percolation perc = new Percolation(reader.n());
+      reader.replay(perc);
+      return perc;
+    }
+  }
+
+  // position in the trace of the site that first made the grid percolate, or -1
+  public static long onset(Path trace) throws IOException {
+    try (TraceReader reader = new TraceReader(trace)) {
+      return reader.replay(new Percolation(reader.n()));
+    }
+  }
+
+  public static void main(String[] args) {
+    if (args.length < 2) {
+      throw new IllegalArgumentException("usage: to-trace in.txt out.trace [--deflate] | to-text in.trace out.txt"
+          + " | replay in.trace");
+    }
+    try {
+      if ("to-trace".equals(args[0]) && args.length >= 3) {
+        toTrace(Paths.get(args[1]), Paths.get(args[2]), args.length > 3 && "--deflate".equals(args[3]));
+      } else if ("to-text".equals(args[0]) && args.length >= 3) {
+        toText(Paths.get(args[1]), Paths.get(args[2]));
+      } else if ("replay".equals(args[0])) {
+        try (TraceReader reader = new TraceReader(Paths.get(args[1]))) {
+          Percolation perc = new Percolation(reader.n());
+          long onset = reader.replay(perc);
+          System.out.println(perc.numberOfOpenSites() + " open sites, "
+              + (perc.percolates() ? "percolates from site #" + (onset + 1) : "does not percolate"));
+        }
+      } else {
+        throw new IllegalArgumentException("unknown command: " + args[0]);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+}
@@ -0,0 +1,129 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import java.util.zip.InflaterInputStream;
+
+// reads a binary trace written by TraceWriter; the checksum is verified once
+// the last site has been read
+public class TraceReader implements Closeable {
+
+  private static final int REPLAY_BATCH = 1 << 16;
+
+  private final DataInputStream in;
+  private final InputStream body;
+  private final int n;
+  private final long count;
+  private final int expectedCrc;
+  private final CRC32 crc = new CRC32();
+  private long read = 0;
+  private int previousSite = 0;
+
+  public TraceReader(Path file) throws IOException {
+    this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+    try {
+      if (in.readInt() != TraceWriter.MAGIC) {
+        throw new IOException(file + " is not a site trace");
+      }
+      int version = in.readUnsignedByte();
+      if (version != TraceWriter.VERSION) {
+        throw new IOException("unsupported trace version " + version);
+      }
+      int flags = in.readUnsignedByte();
+      this.n = in.readInt();
+      // the sites are int indices into an n-by-n grid, as TraceWriter checks
+      if (n <= 0 || (long) n * n > Integer.MAX_VALUE) {
+        throw new IOException("corrupt trace: grid size " + n);
+      }
+      this.count = in.readLong();
+      this.expectedCrc = in.readInt();
+      this.body = (flags & TraceWriter.FLAG_DEFLATE) != 0 ? new BufferedInputStream(new InflaterInputStream(in)) : in;
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+  }
+
+  // grid size the trace was recorded on
+  public int n() {
+    return n;
+  }
+
+  // number of sites in the trace
+  public long count() {
+    return count;
+  }
+
+  public boolean hasNext() {
+    return read < count;
+  }
+
+  private int readByte() throws IOException {
+    int b = body.read();
+    if (b < 0) {
+      throw new EOFException("trace ends after " + read + " of " + count + " sites");
+    }
+    crc.update(b);
+    return b;
+  }
+
+  // next 0-based 1D site index
+  public int nextSite() throws IOException {
+    if (!hasNext()) {
+      throw new NoSuchElementException("no more sites");
+    }
+    int zigzag = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = readByte();
+      zigzag |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0 && shift < 35);
+    // a 32-bit varint ends by its fifth byte, which holds the top four bits
+    if (shift == 35 && (b & ~0x0F) != 0) {
+      throw new IOException("corrupt trace: varint of site " + read + " is longer than 32 bits");
+    }
+    int site = previousSite + ((zigzag >>> 1) ^ -(zigzag & 1));
+    if (site < 0 || site >= n * n) {
+      throw new IOException("corrupt trace: site " + site + " outside a " + n + "-by-" + n + " grid");
+    }
+    previousSite = site;
+    read++;
+    if (read == count && (int) crc.getValue() != expectedCrc) {
+      throw new IOException("corrupt trace: checksum mismatch");
+    }
+    return site;
+  }
+
+  // open every remaining site of the trace on perc, a batch at a time; returns the
+  // position in the trace of the site that first made perc percolate, or -1
+  public long replay(Percolation perc) throws IOException {
+    int[] batch = new int[REPLAY_BATCH];
+    long onset = -1;
+    while (hasNext()) {
+      long first = read;
+      int size = 0;
+      while (size < batch.length && hasNext()) {
+        batch[size++] = nextSite();
+      }
+      int batchOnset = perc.openBatch(batch, 0, size);
+      if (batchOnset >= 0) {
+        onset = first + batchOnset;
+      }
+    }
+    return onset;
+  }
+
+  @Override
+  public void close() throws IOException {
+    body.close();
+  }
+
+}
@@ -0,0 +1,108 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+// writes a binary trace of sites to open. Layout (big endian):
+//
+//   magic "PTRC" | version (byte) | flags (byte) | n (int) | count (long) | crc32 (int)
+//   body: per site, the zigzag varint of (site - previous site), with 1D sites
+//         (row - 1) * n + (col - 1) and previous site starting at 0
+//
+// If FLAG_DEFLATE is set the body is deflate compressed. The crc32 is taken
+// over the uncompressed body. count and crc32 are filled in by close().
+public class TraceWriter implements Closeable {
+
+  static final int MAGIC = 0x50545243; // "PTRC"
+  static final int VERSION = 1;
+  static final int FLAG_DEFLATE = 1;
+  static final int HEADER_BYTES = 22;
+  static final int COUNT_OFFSET = 10;
+
+  private final Path file;
+  private final int n;
+  private final DataOutputStream out;
+  private final OutputStream body;
+  private final CRC32 crc = new CRC32();
+  private final byte[] varint = new byte[5];
+  private long count = 0;
+  private int previousSite = 0;
+
+  public TraceWriter(Path file, int n, boolean deflate) throws IOException {
+    if (n <= 0) {
+      throw new IllegalArgumentException("Size must be greater than 0!");
+    }
+    // sites are written as int indices
+    if ((long) n * n > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Size is too large for a trace!");
+    }
+    this.file = file;
+    this.n = n;
+    this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+    try {
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      out.writeByte(deflate ? FLAG_DEFLATE : 0);
+      out.writeInt(n);
+      out.writeLong(0L);
+      out.writeInt(0);
+    } catch (IOException e) {
+      try {
+        out.close();
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw e;
+    }
+    this.body = deflate ? new BufferedOutputStream(new DeflaterOutputStream(out), 1 << 16) : out;
+  }
+
+  public void write(int row, int col) throws IOException {
+    if (row <= 0 || row > n || col <= 0 || col > n) {
+      throw new IndexOutOfBoundsException("row and column must be between 1 and " + n);
+    }
+    writeSite((row - 1) * n + (col - 1));
+  }
+
+  // write the 0-based 1D site index
+  public void writeSite(int site) throws IOException {
+    if (site < 0 || site >= n * n) {
+      throw new IndexOutOfBoundsException("site must be between 0 and " + (n * n - 1));
+    }
+    int delta = site - previousSite;
+    int zigzag = (delta << 1) ^ (delta >> 31);
+    int length = 0;
+    while ((zigzag & ~0x7F) != 0) {
+      varint[length++] = (byte) ((zigzag & 0x7F) | 0x80);
+      zigzag >>>= 7;
+    }
+    varint[length++] = (byte) zigzag;
+    body.write(varint, 0, length);
+    crc.update(varint, 0, length);
+    previousSite = site;
+    count++;
+  }
+
+  // number of sites written so far
+  public long count() {
+    return count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    // closing the body finishes the deflate stream, if any, and closes the file
+    body.close();
+    try (RandomAccessFile header = new RandomAccessFile(file.toFile(), "rw")) {
+      header.seek(COUNT_OFFSET);
+      header.writeLong(count);
+      header.writeInt((int) crc.getValue());
+    }
+  }
+
+}
@@ -0,0 +1,21 @@
+// union-find over sites 0 to n-1, as used by Percolation to track connected components
+public interface UnionFind {
+
+  // canonical site of the component containing p
+  int find(int p);
+
+  // merge the components containing p and q
+  void union(int p, int q);
+
+  // make the first count sites of the array singletons again; every site
+  // that was ever part of a union must be among them
+  void reset(int[] sites, int count);
+
+  // an independent union-find with the same components and roots
+  UnionFind copy();
+
+  // take over the components and roots of source, a union-find of the same
+  // engine and size, such as one made by copy()
+  void copyFrom(UnionFind source);
+
+}
@@ -0,0 +1,26 @@
+import java.util.Locale;
+
+// the union-find implementations Percolation can run on
+public enum UnionFindEngine {
+
+  ALGS4 {
+    @Override
+    public UnionFind create(int n) {
+      return new Algs4UnionFind(n);
+    }
+  },
+
+  COMPACT {
+    @Override
+    public UnionFind create(int n) {
+      return new CompactUnionFind(n);
+    }
+  };
+
+  public abstract UnionFind create(int n);
+
+  public static UnionFindEngine fromName(String name) {
+    return valueOf(name.toUpperCase(Locale.ROOT));
+  }
+
+}
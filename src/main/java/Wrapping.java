@@ -0,0 +1,22 @@
+import java.util.Locale;
+
+// which wrapping cluster of a PeriodicPercolation torus counts as percolation
+public enum Wrapping {
+
+  // a cluster that wraps around the torus left to right
+  HORIZONTAL,
+
+  // a cluster that wraps around top to bottom
+  VERTICAL,
+
+  // a cluster wrapping in either direction
+  EITHER,
+
+  // a single cluster wrapping in both directions
+  BOTH;
+
+  public static Wrapping fromName(String name) {
+    return valueOf(name.toUpperCase(Locale.ROOT));
+  }
+
+}
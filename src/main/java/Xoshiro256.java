@@ -0,0 +1,48 @@
+// xoshiro256** (Blackman and Vigna): 256 bits of state, period 2^256 - 1, and
+// passes the usual statistical test suites. Seeds expand through SplitMix64, as
+// its authors recommend, so nearby seeds still give unrelated streams.
+public class Xoshiro256 implements SiteRandom {
+
+  private long s0;
+  private long s1;
+  private long s2;
+  private long s3;
+
+  public Xoshiro256(long seed) {
+    setSeed(seed);
+  }
+
+  Xoshiro256(long s0, long s1, long s2, long s3) {
+    this.s0 = s0;
+    this.s1 = s1;
+    this.s2 = s2;
+    this.s3 = s3;
+  }
+
+  @Override
+  public void setSeed(long seed) {
+    long z = seed;
+    z += 0x9E3779B97F4A7C15L;
+    s0 = SplitMix64.mix(z);
+    z += 0x9E3779B97F4A7C15L;
+    s1 = SplitMix64.mix(z);
+    z += 0x9E3779B97F4A7C15L;
+    s2 = SplitMix64.mix(z);
+    z += 0x9E3779B97F4A7C15L;
+    s3 = SplitMix64.mix(z);
+  }
+
+  @Override
+  public long nextLong() {
+    long result = Long.rotateLeft(s1 * 5, 7) * 9;
+    long t = s1 << 17;
+    s2 ^= s0;
+    s3 ^= s1;
+    s1 ^= s2;
+    s0 ^= s3;
+    s2 ^= t;
+    s3 = Long.rotateLeft(s3, 45);
+    return result;
+  }
+
+}
@@ -0,0 +1,125 @@
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClusterTrackerTest {
+
+  // sizes of all clusters of open sites, found by flooding; sizes[0] is the number of clusters
+  private static int[] floodSizes(Percolation p, int n) {
+    int[] sizes = new int[n * n + 1];
+    boolean[] seen = new boolean[n * n];
+    int[] queue = new int[n * n];
+    for (int start = 0; start < n * n; start++) {
+      if (seen[start] || !p.isOpen(start / n + 1, start % n + 1)) {
+        continue;
+      }
+      seen[start] = true;
+      int tail = 0;
+      queue[tail++] = start;
+      for (int head = 0; head < tail; head++) {
+        int site = queue[head];
+        int row = site / n;
+        int col = site % n;
+        int[] neighbors = {row > 0 ? site - n : -1, col < n - 1 ? site + 1 : -1,
+            row < n - 1 ? site + n : -1, col > 0 ? site - 1 : -1};
+        for (int neighbor : neighbors) {
+          if (neighbor >= 0 && !seen[neighbor] && p.isOpen(neighbor / n + 1, neighbor % n + 1)) {
+            seen[neighbor] = true;
+            queue[tail++] = neighbor;
+          }
+        }
+      }
+      sizes[0]++;
+      sizes[tail]++;
+    }
+    return sizes;
+  }
+
+  private static void assertMatchesFlood(ClusterTracker clusters, Percolation p, int n) {
+    int[] sizes = floodSizes(p, n);
+    assertEquals(sizes[0], clusters.numberOfClusters());
+    int largest = 0;
+    long sites = 0;
+    long squares = 0;
+    for (int size = 1; size <= n * n; size++) {
+      assertEquals(sizes[size], clusters.clustersOfSize(size));
+      if (sizes[size] > 0) {
+        largest = size;
+      }
+      sites += (long) size * sizes[size];
+      squares += (long) size * size * sizes[size];
+    }
+    assertEquals(largest, clusters.largestClusterSize());
+    double mean = sites == largest ? 0.0 : (squares - (long) largest * largest) / (double) (sites - largest);
+    assertEquals(mean, clusters.meanClusterSize(), 1e-9);
+  }
+
+  @Test
+  public void testTrackerMatchesFlood() {
+    int n = 12;
+    Random random = new Random(3L);
+    Percolation p = new Percolation(n);
+    ClusterTracker clusters = p.trackClusters(true);
+    for (int round = 0; round < 2; round++) {
+      p.reset();
+      assertEquals(0, clusters.numberOfClusters());
+      for (int i = 0; i < n * n; i++) {
+        p.open(1 + random.nextInt(n), 1 + random.nextInt(n));
+        assertMatchesFlood(clusters, p, n);
+      }
+    }
+  }
+
+  @Test
+  public void testTrackingStartedLateSeesEarlierOpens() {
+    int n = 10;
+    Random random = new Random(4L);
+    Percolation p = new Percolation(n);
+    for (int i = 0; i < n * n / 2; i++) {
+      p.open(1 + random.nextInt(n), 1 + random.nextInt(n));
+    }
+    ClusterTracker clusters = p.trackClusters(true);
+    assertMatchesFlood(clusters, p, n);
+    for (int i = 0; i < n * n / 2; i++) {
+      p.open(1 + random.nextInt(n), 1 + random.nextInt(n));
+    }
+    assertMatchesFlood(clusters, p, n);
+  }
+
+  @Test
+  public void testOpenBatchKeepsTrackerUpToDate() {
+    int n = 20;
+    Random random = new Random(6L);
+    int[] sites = new int[n * n];
+    for (int i = 0; i < sites.length; i++) {
+      sites[i] = random.nextInt(n * n);
+    }
+    Percolation p = new Percolation(n);
+    ClusterTracker clusters = p.trackClusters(true);
+    p.openBatch(sites, 0, sites.length);
+    assertMatchesFlood(clusters, p, n);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testHistogramMustBeAskedFor() {
+    new Percolation(3).trackClusters(false).clustersOfSize(1);
+  }
+
+  @Test
+  public void testSeriesGoesFromEmptyToOneCluster() {
+    ClusterSeries series = new ClusterSeries(20, 10, 1L, 11);
+    assertEquals(0.0, series.largestFraction(0), 0.0);
+    assertEquals(1.0, series.largestFraction(10), 1e-12);
+    assertEquals(1.0 / 400, series.clustersPerSite(10), 1e-12);
+    // the largest cluster grows with p
+    for (int point = 1; point <= 10; point++) {
+      assertTrue(series.largestFraction(point) >= series.largestFraction(point - 1));
+    }
+    // susceptibility peaks near the threshold
+    assertTrue(series.meanClusterSize(6) > series.meanClusterSize(2));
+    assertTrue(series.meanClusterSize(6) > series.meanClusterSize(9));
+  }
+
+}
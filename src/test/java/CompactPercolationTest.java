@@ -0,0 +1,120 @@
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CompactPercolationTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectZeroSize() {
+    new CompactPercolation(0);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testOpenRejectsGreatherThanSizeAsColumn() {
+    CompactPercolation p = new CompactPercolation(1);
+    p.open(1, 10);
+  }
+
+  @Test
+  public void testBackWash() {
+    CompactPercolation p = new CompactPercolation(3);
+    p.open(1, 3);
+    p.open(2, 3);
+    p.open(3, 3);
+    p.open(3, 1);
+    assertTrue(p.percolates());
+    assertFalse(p.isFull(3, 1));
+  }
+
+  @Test
+  public void testAgreesWithPercolation() {
+    int n = 30;
+    Random random = new Random(11L);
+    CompactPercolation compact = new CompactPercolation(n);
+    for (int round = 0; round < 2; round++) {
+      Percolation reference = new Percolation(n);
+      compact.reset();
+      for (int i = 0; i < n * n; i++) {
+        int row = 1 + random.nextInt(n);
+        int col = 1 + random.nextInt(n);
+        reference.open(row, col);
+        compact.open(row, col);
+        assertEquals(reference.percolates(), compact.percolates());
+        assertEquals(reference.numberOfOpenSites(), compact.numberOfOpenSites());
+      }
+      for (int row = 1; row <= n; row++) {
+        for (int col = 1; col <= n; col++) {
+          assertEquals(reference.isOpen(row, col), compact.isOpen(row, col));
+          assertEquals(reference.isFull(row, col), compact.isFull(row, col));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testBytesPerSite() {
+    assertEquals(4.125, new CompactPercolation(8).bytesPerSite(), 1e-9);
+  }
+
+  @Test
+  public void testLayoutsPlaceEverySiteOnce() {
+    for (SiteLayout layout : SiteLayout.values()) {
+      for (int n : new int[] {1, 2, 31, 33, 64}) {
+        int stride = layout.stride(n);
+        boolean[] used = new boolean[(int) layout.sites(n)];
+        for (int row = 0; row < n; row++) {
+          for (int col = 0; col < n; col++) {
+            int index = layout.index(row, col, stride);
+            assertFalse(layout + " n=" + n, used[index]);
+            used[index] = true;
+            assertEquals(row, layout.rowOf(index, stride));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testLayoutsAgreeWithPercolation() {
+    Random random = new Random(12L);
+    for (SiteLayout layout : SiteLayout.values()) {
+      for (int n : new int[] {1, 5, 40}) {
+        CompactPercolation compact = new CompactPercolation(n, layout);
+        for (int round = 0; round < 2; round++) {
+          Percolation reference = new Percolation(n);
+          compact.reset();
+          for (int i = 0; i < n * n; i++) {
+            int row = 1 + random.nextInt(n);
+            int col = 1 + random.nextInt(n);
+            reference.open(row, col);
+            compact.open(row, col);
+            assertEquals(layout + " n=" + n, reference.percolates(), compact.percolates());
+          }
+          for (int row = 1; row <= n; row++) {
+            for (int col = 1; col <= n; col++) {
+              assertEquals(reference.isOpen(row, col), compact.isOpen(row, col));
+              assertEquals(reference.isFull(row, col), compact.isFull(row, col));
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testPaddedBytesPerSite() {
+    // 40 rounds up to 64 sites on a side, in two tiles or one Morton square
+    assertEquals(4.125 * 64 * 64 / (40 * 40), new CompactPercolation(40, SiteLayout.TILED).bytesPerSite(), 1e-9);
+    assertEquals(4.125 * 64 * 64 / (40 * 40), new CompactPercolation(40, SiteLayout.MORTON).bytesPerSite(), 1e-9);
+    assertEquals(4.125, new CompactPercolation(64, SiteLayout.TILED).bytesPerSite(), 1e-9);
+  }
+
+  @Test
+  public void testLayoutFromName() {
+    assertEquals(SiteLayout.ROW_MAJOR, SiteLayout.fromName("row-major"));
+    assertEquals(SiteLayout.MORTON, SiteLayout.fromName("morton"));
+  }
+
+}
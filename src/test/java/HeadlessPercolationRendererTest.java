@@ -0,0 +1,116 @@
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class HeadlessPercolationRendererTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static Percolation randomGrid(int n, long seed) {
+    Random random = new Random(seed);
+    Percolation perc = new Percolation(n);
+    for (int i = 0; i < n * n * 6 / 10; i++) {
+      perc.open(1 + random.nextInt(n), 1 + random.nextInt(n));
+    }
+    return perc;
+  }
+
+  @Test
+  public void testCellsHaveTheColorsOfTheirSites() {
+    int n = 7;
+    int cell = 20;
+    Percolation perc = randomGrid(n, 1L);
+    try (HeadlessPercolationRenderer renderer = new HeadlessPercolationRenderer(n, cell, 1)) {
+      BufferedImage image = renderer.render(perc);
+      assertEquals(n * cell, image.getWidth());
+      for (int row = 1; row <= n; row++) {
+        for (int col = 1; col <= n; col++) {
+          int expected = perc.isFull(row, col) ? 0x67C6F3 : perc.isOpen(row, col) ? 0xFFFFFF : 0x000000;
+          int x = (col - 1) * cell;
+          int y = (row - 1) * cell;
+          assertEquals(expected, image.getRGB(x + cell / 2, y + cell / 2) & 0xFFFFFF);
+          // the gap around the site stays black
+          assertEquals(0, image.getRGB(x, y + cell / 2) & 0xFFFFFF);
+          assertEquals(0, image.getRGB(x + cell / 2, y + cell - 1) & 0xFFFFFF);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testPngHasThePixelsOfTheImage() throws IOException {
+    int n = 13;
+    Percolation perc = randomGrid(n, 4L);
+    Path png = folder.getRoot().toPath().resolve("grid.png");
+    try (HeadlessPercolationRenderer renderer = new HeadlessPercolationRenderer(n, 5, 2)) {
+      renderer.writePng(perc, png);
+      BufferedImage read = ImageIO.read(png.toFile());
+      int[] pixels = read.getRGB(0, 0, n * 5, n * 5, null, 0, n * 5);
+      for (int i = 0; i < pixels.length; i++) {
+        assertEquals(renderer.pixels()[i], pixels[i] & 0xFFFFFF);
+      }
+    }
+  }
+
+  @Test
+  public void testBandsDrawTheSameAsOneThread() {
+    int n = 50;
+    Percolation perc = randomGrid(n, 2L);
+    try (HeadlessPercolationRenderer one = new HeadlessPercolationRenderer(n, 3, 1);
+         HeadlessPercolationRenderer bands = new HeadlessPercolationRenderer(n, 3, 4)) {
+      one.render(perc);
+      bands.render(perc);
+      assertArrayEquals(one.pixels(), bands.pixels());
+    }
+  }
+
+  @Test
+  public void testFramesOfATrace() throws IOException {
+    Path text = folder.newFile("input10.txt").toPath();
+    Random random = new Random(3L);
+    StringBuilder input = new StringBuilder("10\n");
+    for (int i = 0; i < 56; i++) {
+      input.append(1 + random.nextInt(10)).append(' ').append(1 + random.nextInt(10)).append('\n');
+    }
+    Files.write(text, input.toString().getBytes(StandardCharsets.US_ASCII));
+    Path frames = folder.newFolder("frames").toPath();
+    // 56 sites, 20 per frame, after the empty grid
+    assertEquals(4, HeadlessPercolationRenderer.writeFrames(text, frames, 20, 2, 2));
+    assertTrue(Files.exists(frames.resolve("frame-00003.png")));
+    assertFalse(Files.exists(frames.resolve("frame-00004.png")));
+
+    Path trace = folder.getRoot().toPath().resolve("input10.trace");
+    TraceConverter.toTrace(text, trace, false);
+    Path png = folder.getRoot().toPath().resolve("input10.png");
+    HeadlessPercolationRenderer.writePng(trace, png, 2, 1);
+    BufferedImage last = ImageIO.read(frames.resolve("frame-00003.png").toFile());
+    BufferedImage whole = ImageIO.read(png.toFile());
+    int[] expected = last.getRGB(0, 0, 20, 20, null, 0, 20);
+    assertTrue(Arrays.equals(expected, whole.getRGB(0, 0, 20, 20, null, 0, 20)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectGridOfAnotherSize() {
+    try (HeadlessPercolationRenderer renderer = new HeadlessPercolationRenderer(5, 2, 1)) {
+      renderer.render(new Percolation(6));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectImagesTooLarge() {
+    new HeadlessPercolationRenderer(50000, 2, 1);
+  }
+
+}
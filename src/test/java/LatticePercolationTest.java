@@ -0,0 +1,212 @@
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatticePercolationTest {
+
+  private static final int[] DEGREE = {4, 6, 3, 6};
+
+  // does an open path join the top layer to the bottom layer? found by flooding
+  private static boolean floodPercolates(Lattice lattice, int n, boolean[] open) {
+    int sites = lattice.sites(n);
+    int layer = lattice.layer(n);
+    boolean[] seen = new boolean[sites];
+    int[] queue = new int[sites];
+    int[] neighbors = new int[Lattice.MAX_DEGREE];
+    int tail = 0;
+    for (int site = 0; site < layer; site++) {
+      if (open[site]) {
+        seen[site] = true;
+        queue[tail++] = site;
+      }
+    }
+    for (int head = 0; head < tail; head++) {
+      int site = queue[head];
+      if (site >= sites - layer) {
+        return true;
+      }
+      int count = lattice.neighbors(n, site, neighbors);
+      for (int k = 0; k < count; k++) {
+        if (open[neighbors[k]] && !seen[neighbors[k]]) {
+          seen[neighbors[k]] = true;
+          queue[tail++] = neighbors[k];
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean contains(int[] values, int count, int value) {
+    for (int i = 0; i < count; i++) {
+      if (values[i] == value) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Test
+  public void testNeighborsAreSymmetricWithFullInteriorDegree() {
+    int n = 6;
+    int[] neighbors = new int[Lattice.MAX_DEGREE];
+    int[] back = new int[Lattice.MAX_DEGREE];
+    for (Lattice lattice : Lattice.values()) {
+      int maxDegree = 0;
+      for (int site = 0; site < lattice.sites(n); site++) {
+        int count = lattice.neighbors(n, site, neighbors);
+        maxDegree = Math.max(maxDegree, count);
+        for (int k = 0; k < count; k++) {
+          int backCount = lattice.neighbors(n, neighbors[k], back);
+          assertTrue(lattice + " " + site, contains(back, backCount, site));
+        }
+      }
+      assertEquals(lattice.toString(), DEGREE[lattice.ordinal()], maxDegree);
+    }
+  }
+
+  @Test
+  public void testBondsNameEveryNeighborPairOnce() {
+    int n = 5;
+    int[] neighbors = new int[Lattice.MAX_DEGREE];
+    for (Lattice lattice : Lattice.values()) {
+      int pairs = 0;
+      for (int site = 0; site < lattice.sites(n); site++) {
+        pairs += lattice.neighbors(n, site, neighbors);
+        for (int k = 0; k < lattice.forwardDegree(); k++) {
+          int target = lattice.bondTarget(n, site, k);
+          if (target != Lattice.NO_SITE) {
+            int count = lattice.neighbors(n, site, neighbors);
+            assertTrue(lattice + " " + site, contains(neighbors, count, target));
+          }
+        }
+      }
+      assertEquals(lattice.toString(), pairs / 2, new BondPercolation(lattice, n).bonds());
+    }
+  }
+
+  @Test
+  public void testSitePercolationMatchesFlood() {
+    Random random = new Random(5L);
+    for (Lattice lattice : Lattice.values()) {
+      for (int n : new int[] {1, 2, 7}) {
+        LatticePercolation p = new LatticePercolation(lattice, n);
+        for (int round = 0; round < 3; round++) {
+          p.reset();
+          boolean[] open = new boolean[p.sites()];
+          for (int i = 0; i < p.sites(); i++) {
+            int site = random.nextInt(p.sites());
+            p.open(site);
+            open[site] = true;
+            assertEquals(lattice + " n=" + n, floodPercolates(lattice, n, open), p.percolates());
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSquareLatticeMatchesPercolation() {
+    int n = 15;
+    Random random = new Random(9L);
+    LatticePercolation lattice = new LatticePercolation(Lattice.SQUARE, n);
+    Percolation grid = new Percolation(n);
+    for (int i = 0; i < n * n; i++) {
+      int site = random.nextInt(n * n);
+      lattice.open(site);
+      grid.open(site / n + 1, site % n + 1);
+      assertEquals(grid.percolates(), lattice.percolates());
+      assertEquals(grid.numberOfOpenSites(), lattice.numberOfOpenSites());
+    }
+    for (int site = 0; site < n * n; site++) {
+      assertEquals(grid.isFull(site / n + 1, site % n + 1), lattice.isFull(site));
+    }
+  }
+
+  // do the open bonds join the top layer to the bottom layer? found with a plain quick-find
+  private static boolean bondsSpan(BondPercolation p, int n) {
+    Lattice lattice = p.lattice();
+    int sites = lattice.sites(n);
+    int degree = lattice.forwardDegree();
+    int[] id = new int[sites];
+    for (int site = 0; site < sites; site++) {
+      id[site] = site;
+    }
+    for (int bond = 0; bond < p.bondSlots(); bond++) {
+      if (p.isBond(bond) && p.isOpen(bond)) {
+        int from = id[bond / degree];
+        int to = id[lattice.bondTarget(n, bond / degree, bond % degree)];
+        for (int site = 0; site < sites; site++) {
+          if (id[site] == from) {
+            id[site] = to;
+          }
+        }
+      }
+    }
+    for (int top = 0; top < lattice.layer(n); top++) {
+      for (int bottom = sites - lattice.layer(n); bottom < sites; bottom++) {
+        if (id[top] == id[bottom]) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Test
+  public void testBondPercolationMatchesQuickFind() {
+    Random random = new Random(13L);
+    for (Lattice lattice : Lattice.values()) {
+      int n = 5;
+      BondPercolation p = new BondPercolation(lattice, n);
+      for (int round = 0; round < 2; round++) {
+        p.reset();
+        assertEquals(0, p.numberOfOpenBonds());
+        for (int i = 0; i < p.bondSlots(); i++) {
+          int bond = random.nextInt(p.bondSlots());
+          if (!p.isBond(bond)) {
+            continue;
+          }
+          p.open(bond);
+          assertEquals(lattice.toString(), bondsSpan(p, n), p.percolates());
+        }
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectOpeningANonBond() {
+    // the last site of a square lattice has no forward neighbors
+    new BondPercolation(Lattice.SQUARE, 3).open(8 * 2);
+  }
+
+  @Test
+  public void testSiteCountIsOnlyBoundByAnInt() {
+    // beyond the bond limit of Integer.MAX_VALUE / 6 sites
+    assertEquals(20000 * 20000, Lattice.SQUARE.sites(20000));
+    assertEquals(1250 * 1250 * 1250, Lattice.CUBIC.sites(1250));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectBondLatticeTooLarge() {
+    // 2 ends of 2 bond slots per site pass Integer.MAX_VALUE from n = 23171
+    new BondPercolation(Lattice.SQUARE, 23171);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testRejectInvalidSite() {
+    new LatticePercolation(Lattice.CUBIC, 3).open(27);
+  }
+
+  @Test
+  public void testKnownThresholds() {
+    // site: square 0.593, triangular 0.5, honeycomb 0.697, cubic 0.312; bond: square 0.5
+    assertEquals(0.593, new LatticeStats(Lattice.SQUARE, 40, 100, false, 1L).mean(), 0.03);
+    assertEquals(0.5, new LatticeStats(Lattice.TRIANGULAR, 40, 100, false, 2L).mean(), 0.03);
+    assertEquals(0.697, new LatticeStats(Lattice.HONEYCOMB, 40, 100, false, 3L).mean(), 0.03);
+    assertEquals(0.312, new LatticeStats(Lattice.CUBIC, 15, 100, false, 4L).mean(), 0.03);
+    assertEquals(0.5, new LatticeStats(Lattice.SQUARE, 40, 100, true, 5L).mean(), 0.03);
+  }
+
+}
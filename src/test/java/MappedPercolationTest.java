@@ -0,0 +1,145 @@
+import java.io.File;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class MappedPercolationTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static void assertSameState(PercolationSystem expected, PercolationSystem actual, int n) {
+    assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+    assertEquals(expected.percolates(), actual.percolates());
+    for (int row = 1; row <= n; row++) {
+      for (int col = 1; col <= n; col++) {
+        assertEquals(expected.isOpen(row, col), actual.isOpen(row, col));
+        assertEquals(expected.isFull(row, col), actual.isFull(row, col));
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectZeroSize() {
+    new MappedPercolation(0);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testIsFullRejectsZeroAsRow() {
+    new MappedPercolation(1).isFull(0, 1);
+  }
+
+  @Test
+  public void testAgreesWithPercolation() {
+    int n = 25;
+    Random random = new Random(3L);
+    Percolation reference = new Percolation(n);
+    MappedPercolation mapped = new MappedPercolation(n);
+    for (int i = 0; i < n * n; i++) {
+      int row = 1 + random.nextInt(n);
+      int col = 1 + random.nextInt(n);
+      reference.open(row, col);
+      mapped.open(row, col);
+      assertEquals(reference.percolates(), mapped.percolates());
+    }
+    assertSameState(reference, mapped, n);
+    mapped.reset();
+    assertSameState(new Percolation(n), mapped, n);
+  }
+
+  @Test
+  public void testCheckpointAndRestore() throws Exception {
+    int n = 20;
+    Random random = new Random(4L);
+    Percolation reference = new Percolation(n);
+    MappedPercolation grid = new MappedPercolation(n);
+    for (int i = 0; i < n * n / 2; i++) {
+      int row = 1 + random.nextInt(n);
+      int col = 1 + random.nextInt(n);
+      reference.open(row, col);
+      grid.open(row, col);
+    }
+    File checkpoint = folder.newFile("half.perc");
+    grid.checkpoint(checkpoint.toPath());
+
+    MappedPercolation restored = MappedPercolation.restore(checkpoint.toPath());
+    assertSameState(reference, restored, n);
+    restored.open(1, 1);
+    assertSameState(reference, MappedPercolation.restore(checkpoint.toPath()), n);
+  }
+
+  @Test
+  public void testRestoredGridCheckpointsToItsOwnFile() throws Exception {
+    int n = 20;
+    Random random = new Random(5L);
+    Percolation reference = new Percolation(n);
+    MappedPercolation grid = new MappedPercolation(n);
+    for (int i = 0; i < n * n / 2; i++) {
+      int row = 1 + random.nextInt(n);
+      int col = 1 + random.nextInt(n);
+      reference.open(row, col);
+      grid.open(row, col);
+    }
+    File file = folder.newFile("grid.perc");
+    grid.checkpoint(file.toPath());
+
+    MappedPercolation restored = MappedPercolation.restore(file.toPath());
+    for (int i = 0; i < n * n / 2; i++) {
+      int row = 1 + random.nextInt(n);
+      int col = 1 + random.nextInt(n);
+      reference.open(row, col);
+      restored.open(row, col);
+    }
+    restored.checkpoint(file.toPath());
+    assertSameState(reference, restored, n);
+    assertSameState(reference, MappedPercolation.restore(file.toPath()), n);
+    // only the checkpoint is left in the folder, no temporary file
+    assertEquals(1, folder.getRoot().list().length);
+  }
+
+  @Test
+  public void testFileBackedGridCheckpointsInPlace() throws Exception {
+    int n = 10;
+    File file = folder.newFile("grid.perc");
+    Percolation reference = new Percolation(n);
+    try (MappedPercolation grid = new MappedPercolation(n, file.toPath())) {
+      for (int row = 1; row <= n; row++) {
+        reference.open(row, 4);
+        grid.open(row, 4);
+      }
+      grid.checkpoint();
+    }
+    MappedPercolation restored = MappedPercolation.restore(file.toPath());
+    assertTrue(restored.percolates());
+    assertSameState(reference, restored, n);
+  }
+
+  @Test
+  public void testFileBackedGridCheckpointsToItsOwnFileByPath() throws Exception {
+    int n = 10;
+    File file = folder.newFile("grid.perc");
+    Percolation reference = new Percolation(n);
+    try (MappedPercolation grid = new MappedPercolation(n, file.toPath())) {
+      reference.open(1, 1);
+      grid.open(1, 1);
+      grid.checkpoint(file.toPath());
+      // the grid still maps the file, so checkpoint() keeps saving to it
+      reference.open(2, 1);
+      grid.open(2, 1);
+      grid.checkpoint();
+    }
+    MappedPercolation restored = MappedPercolation.restore(file.toPath());
+    assertEquals(2, restored.numberOfOpenSites());
+    assertSameState(reference, restored, n);
+    assertEquals(1, folder.getRoot().list().length);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRestoreRejectsOtherFiles() throws Exception {
+    MappedPercolation.restore(folder.newFile("empty.perc").toPath());
+  }
+}
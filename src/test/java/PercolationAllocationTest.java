@@ -0,0 +1,84 @@
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PercolationAllocationTest {
+
+  private static final int SIZE = 200;
+
+  // a handful of bytes may be charged to the thread by the JIT or class loading
+  // during the measured window; anything allocated per open would be far above this
+  private static final double MAX_BYTES_PER_OPEN = 0.01;
+
+  private static com.sun.management.ThreadMXBean threadBean() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+    Assume.assumeTrue(sunBean.isThreadAllocatedMemorySupported());
+    sunBean.setThreadAllocatedMemoryEnabled(true);
+    return sunBean;
+  }
+
+  private static int[] randomSites(long seed) {
+    Random random = new Random(seed);
+    int[] sites = new int[2 * SIZE * SIZE];
+    for (int i = 0; i < sites.length; i++) {
+      sites[i] = 1 + random.nextInt(SIZE);
+    }
+    return sites;
+  }
+
+  private static void openAll(Percolation p, int[] sites) {
+    for (int i = 0; i < sites.length; i += 2) {
+      p.open(sites[i], sites[i + 1]);
+    }
+  }
+
+  @Test
+  public void testOpenAllocatesNoPerCallGarbage() {
+    com.sun.management.ThreadMXBean bean = threadBean();
+    long threadId = Thread.currentThread().getId();
+    int[] sites = randomSites(42L);
+
+    // warm up so that class loading and compilation are not counted
+    for (int i = 0; i < 5; i++) {
+      openAll(new Percolation(SIZE), sites);
+    }
+
+    Percolation p = new Percolation(SIZE);
+    long before = bean.getThreadAllocatedBytes(threadId);
+    openAll(p, sites);
+    long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+
+    int opens = sites.length / 2;
+    assertTrue(String.format("%d bytes allocated over %d calls (%.4f bytes/open, limit %.2f)", allocated, opens,
+        allocated / (double) opens, MAX_BYTES_PER_OPEN), allocated / (double) opens < MAX_BYTES_PER_OPEN);
+  }
+
+  @Test
+  public void testResetAndReopenAllocatesNoPerCallGarbage() {
+    com.sun.management.ThreadMXBean bean = threadBean();
+    long threadId = Thread.currentThread().getId();
+    int[] sites = randomSites(43L);
+
+    Percolation p = new Percolation(SIZE);
+    for (int i = 0; i < 5; i++) {
+      p.reset();
+      openAll(p, sites);
+    }
+
+    long before = bean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < 5; i++) {
+      p.reset();
+      openAll(p, sites);
+    }
+    long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+    int opens = 5 * sites.length / 2;
+    assertTrue(String.format("%d bytes allocated over %d calls (%.4f bytes/open, limit %.2f)", allocated, opens,
+        allocated / (double) opens, MAX_BYTES_PER_OPEN), allocated / (double) opens < MAX_BYTES_PER_OPEN);
+  }
+}
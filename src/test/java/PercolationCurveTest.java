@@ -0,0 +1,34 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PercolationCurveTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectZeroTrials() {
+    new PercolationCurve(5, 0);
+  }
+
+  @Test
+  public void testSingleSitePercolatesWithProbabilityP() {
+    PercolationCurve curve = new PercolationCurve(1, 3, UnionFindEngine.COMPACT, 1L);
+    assertEquals(0.0, curve.probabilityAtOpenSites(0), 0.0);
+    assertEquals(1.0, curve.probabilityAtOpenSites(1), 0.0);
+    for (double p = 0.0; p <= 1.0; p += 0.125) {
+      assertEquals(p, curve.probability(p), 1e-12);
+    }
+  }
+
+  @Test
+  public void testCurveRisesFromZeroToOne() {
+    PercolationCurve curve = new PercolationCurve(20, 200, UnionFindEngine.COMPACT, 2L);
+    double[] points = curve.curve(21);
+    assertEquals(0.0, points[0], 0.0);
+    assertEquals(1.0, points[20], 0.0);
+    for (int i = 1; i < points.length; i++) {
+      assertTrue(points[i] >= points[i - 1] - 1e-12);
+    }
+    assertTrue(curve.probability(0.45) < 0.1);
+    assertTrue(curve.probability(0.75) > 0.9);
+  }
+}
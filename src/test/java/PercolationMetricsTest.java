@@ -0,0 +1,127 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PercolationMetricsTest {
+
+  private final PercolationMetrics metrics = PercolationMetrics.get();
+
+  @Before
+  public void setUp() {
+    metrics.reset();
+  }
+
+  @Test
+  public void testDisabledUnlessAskedFor() {
+    assertEquals(Boolean.getBoolean("percolation.metrics"), PercolationMetrics.ENABLED);
+  }
+
+  @Test
+  public void testBucketsArePowersOfTwo() {
+    assertEquals(0, PercolationMetrics.bucketOf(0));
+    assertEquals(1, PercolationMetrics.bucketOf(1));
+    assertEquals(2, PercolationMetrics.bucketOf(3));
+    assertEquals(3, PercolationMetrics.bucketOf(4));
+    assertEquals(PercolationMetrics.HISTOGRAM_BUCKETS - 1, PercolationMetrics.bucketOf(Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testFindPathLengths() {
+    PercolationMetrics.recordFind(0);
+    PercolationMetrics.recordFind(2);
+    PercolationMetrics.recordFind(3);
+    assertEquals(3, metrics.getFinds());
+    assertEquals(5 / 3.0, metrics.getMeanFindPathLength(), 1e-12);
+    long[] histogram = metrics.getFindPathLengthHistogram();
+    assertEquals(1, histogram[0]);
+    assertEquals(2, histogram[2]);
+  }
+
+  @Test
+  public void testTrials() {
+    PercolationMetrics.recordTrial(2000000L, 100L);
+    PercolationMetrics.recordTrial(4000000L, -1L);
+    assertEquals(2, metrics.getTrials());
+    assertEquals(3.0, metrics.getMeanTrialMillis(), 1e-12);
+    // the trial of unknown bytes is left out of the mean
+    assertEquals(100.0, metrics.getMeanTrialBytes(), 1e-12);
+    PercolationMetrics.recordTrial(1000000L, 0L);
+    assertEquals(50.0, metrics.getMeanTrialBytes(), 1e-12);
+  }
+
+  @Test
+  public void testPrometheusTextHasCumulativeBuckets() {
+    PercolationMetrics.recordOpens(7);
+    PercolationMetrics.recordFind(1);
+    PercolationMetrics.recordFind(6);
+    String text = metrics.getPrometheusText();
+    assertTrue(text, text.contains("percolation_opens_total 7\n"));
+    assertTrue(text, text.contains("percolation_find_path_length_bucket{le=\"1\"} 1\n"));
+    assertTrue(text, text.contains("percolation_find_path_length_bucket{le=\"7\"} 2\n"));
+    assertTrue(text, text.contains("percolation_find_path_length_bucket{le=\"+Inf\"} 2\n"));
+    assertTrue(text, text.contains("percolation_find_path_length_sum 7\n"));
+  }
+
+
+  // Runs in a JVM started with -Dpercolation.metrics=true by
+  // testCountsOfAFixedGridWithMetricsOn, and prints the counters it reads.
+  public static final class Enabled {
+
+    public static void main(String[] args) {
+      PercolationMetrics metrics = PercolationMetrics.get();
+      Percolation p = new Percolation(3, UnionFindEngine.COMPACT);
+      // (2, 1) joins (1, 1) and then finds (2, 2) already in its component
+      int[][] sites = {{1, 1}, {1, 2}, {2, 2}, {2, 1}, {1, 1}};
+      for (int[] site : sites) {
+        p.open(site[0], site[1]);
+      }
+      System.out.println(PercolationMetrics.ENABLED);
+      System.out.println(metrics.getOpens());
+      System.out.println(metrics.getUnions());
+      System.out.println(metrics.getFinds());
+      long[] histogram = metrics.getFindPathLengthHistogram();
+      long inHistogram = 0;
+      for (long bucket : histogram) {
+        inHistogram += bucket;
+      }
+      System.out.println(inHistogram);
+      metrics.reset();
+      new PercolationStats(5, 4, UnionFindEngine.COMPACT, 1, 1L);
+      System.out.println(metrics.getTrials());
+    }
+  }
+
+  @Test
+  public void testCountsOfAFixedGridWithMetricsOn() throws IOException, InterruptedException {
+    String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    Process process = new ProcessBuilder(java, "-Dpercolation.metrics=true", "-cp",
+        System.getProperty("java.class.path"), Enabled.class.getName()).redirectErrorStream(true).start();
+    List<String> lines = new ArrayList<>();
+    try (BufferedReader out = new BufferedReader(
+        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+      for (String line = out.readLine(); line != null; line = out.readLine()) {
+        lines.add(line);
+      }
+    }
+    assertEquals(lines.toString(), 0, process.waitFor());
+    assertEquals("true", lines.get(0));
+    // every call to open() counts, the repeated one too
+    assertEquals(5, Long.parseLong(lines.get(1)));
+    // only the unions that merge two components
+    assertEquals(3, Long.parseLong(lines.get(2)));
+    // one find for the root of each new site, and per open neighbor two for the
+    // roots before the union and two inside it
+    assertEquals(4 + 4 * 4, Long.parseLong(lines.get(3)));
+    assertEquals(20, Long.parseLong(lines.get(4)));
+    assertEquals(4, Long.parseLong(lines.get(5)));
+  }
+}
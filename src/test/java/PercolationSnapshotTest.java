@@ -0,0 +1,157 @@
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PercolationSnapshotTest {
+
+  private static int[] randomSites(int n, int count, long seed) {
+    Random random = new Random(seed);
+    int[] sites = new int[count];
+    for (int i = 0; i < count; i++) {
+      sites[i] = random.nextInt(n * n);
+    }
+    return sites;
+  }
+
+  private static void open(Percolation p, int n, int[] sites, int from, int to) {
+    for (int i = from; i < to; i++) {
+      p.open(sites[i] / n + 1, sites[i] % n + 1);
+    }
+  }
+
+  private static void assertSameState(Percolation expected, Percolation actual, int n) {
+    assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+    assertEquals(expected.percolates(), actual.percolates());
+    assertEquals(expected.numberOfFullSites(), actual.numberOfFullSites());
+    for (int row = 1; row <= n; row++) {
+      for (int col = 1; col <= n; col++) {
+        assertEquals(expected.isOpen(row, col), actual.isOpen(row, col));
+        assertEquals(expected.isFull(row, col), actual.isFull(row, col));
+      }
+    }
+  }
+
+  @Test
+  public void testRestoredBranchesMatchReplays() {
+    int n = 16;
+    int branchPoint = n * n / 2;
+    for (UnionFindEngine engine : UnionFindEngine.values()) {
+      int[] trunk = randomSites(n, branchPoint, 1L);
+      Percolation p = new Percolation(n, engine);
+      open(p, n, trunk, 0, trunk.length);
+      // full sites are marked before the snapshot, so it carries them
+      p.numberOfFullSites();
+      Percolation.Snapshot snapshot = p.snapshot();
+      for (long branch = 2; branch < 6; branch++) {
+        p.restore(snapshot);
+        int[] future = randomSites(n, n * n, branch);
+        Percolation replay = new Percolation(n, engine);
+        open(replay, n, trunk, 0, trunk.length);
+        for (int step = 0; step < future.length; step += 32) {
+          open(p, n, future, step, step + 32);
+          open(replay, n, future, step, step + 32);
+          assertSameState(replay, p, n);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSnapshotWithoutFullSitesIsMarkedAgain() {
+    int n = 10;
+    int[] sites = randomSites(n, n * n, 7L);
+    Percolation p = new Percolation(n);
+    open(p, n, sites, 0, 60);
+    Percolation.Snapshot snapshot = p.snapshot();
+    assertEquals(p.numberOfOpenSites(), snapshot.numberOfOpenSites());
+    open(p, n, sites, 60, sites.length);
+    p.numberOfFullSites();
+    p.restore(snapshot);
+    Percolation replay = new Percolation(n);
+    open(replay, n, sites, 0, 60);
+    assertSameState(replay, p, n);
+  }
+
+  @Test
+  public void testForkIsIndependent() {
+    int n = 12;
+    int[] sites = randomSites(n, n * n, 8L);
+    Percolation p = new Percolation(n);
+    open(p, n, sites, 0, 70);
+    Percolation copy = new Percolation(n);
+    open(copy, n, sites, 0, 70);
+    Percolation fork = p.fork();
+    assertSameState(copy, fork, n);
+    open(fork, n, sites, 70, sites.length);
+    assertSameState(copy, p, n);
+    open(p, n, sites, 70, sites.length);
+    open(copy, n, sites, 70, sites.length);
+    assertSameState(copy, fork, n);
+    assertSameState(copy, p, n);
+  }
+
+  @Test
+  public void testClustersFollowRestoreAndFork() {
+    int n = 12;
+    int[] sites = randomSites(n, n * n, 9L);
+    Percolation p = new Percolation(n);
+    ClusterTracker clusters = p.trackClusters(true);
+    open(p, n, sites, 0, 50);
+    Percolation.Snapshot snapshot = p.snapshot();
+    int count = clusters.numberOfClusters();
+    int largest = clusters.largestClusterSize();
+    open(p, n, sites, 50, sites.length);
+    p.restore(snapshot);
+    assertEquals(count, clusters.numberOfClusters());
+    assertEquals(largest, clusters.largestClusterSize());
+
+    Percolation fork = p.fork();
+    open(fork, n, sites, 50, sites.length);
+    ClusterTracker forkClusters = fork.trackClusters(true);
+    open(p, n, sites, 50, sites.length);
+    assertEquals(clusters.numberOfClusters(), forkClusters.numberOfClusters());
+    assertEquals(clusters.largestClusterSize(), forkClusters.largestClusterSize());
+    for (int size = 1; size <= n * n; size++) {
+      assertEquals(clusters.clustersOfSize(size), forkClusters.clustersOfSize(size));
+    }
+  }
+
+  @Test
+  public void testRestoreFullSitesIntoGridThatNeverTracked() {
+    int n = 10;
+    int[] sites = randomSites(n, n * n, 10L);
+    Percolation p = new Percolation(n);
+    open(p, n, sites, 0, 50);
+    p.isFull(1, 1);
+    Percolation other = new Percolation(n);
+    other.restore(p.snapshot());
+    open(other, n, sites, 50, sites.length);
+    Percolation replay = new Percolation(n);
+    open(replay, n, sites, 0, sites.length);
+    assertSameState(replay, other, n);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectSnapshotOfAnotherSpanningRule() {
+    int n = 4;
+    Percolation any = new Percolation(n, UnionFindEngine.COMPACT, Spanning.ANY);
+    for (int col = 1; col <= n; col++) {
+      any.open(2, col);
+    }
+    assertTrue(any.percolates());
+    new Percolation(n).restore(any.snapshot());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectSnapshotOfAnotherSize() {
+    new Percolation(4).restore(new Percolation(5).snapshot());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectSnapshotOfAnotherEngine() {
+    new Percolation(4, UnionFindEngine.ALGS4).restore(new Percolation(4).snapshot());
+  }
+
+}
@@ -0,0 +1,60 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PercolationStatsTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectZeroThreads() {
+    new PercolationStats(5, 5, UnionFindEngine.COMPACT, 0, 1L);
+  }
+
+  @Test
+  public void testSameSeedGivesSameStatsOnAnyNumberOfThreads() {
+    PercolationStats sequential = new PercolationStats(20, 40, UnionFindEngine.COMPACT, 1, 99L);
+    PercolationStats parallel = new PercolationStats(20, 40, UnionFindEngine.COMPACT, 4, 99L);
+    assertEquals(sequential.mean(), parallel.mean(), 0.0);
+    assertEquals(sequential.stddev(), parallel.stddev(), 0.0);
+    assertEquals(sequential.confidenceLo(), parallel.confidenceLo(), 0.0);
+    assertEquals(sequential.confidenceHi(), parallel.confidenceHi(), 0.0);
+  }
+
+  @Test
+  public void testRunsAllTrialsWithoutPrecision() {
+    assertEquals(25, new PercolationStats(10, 25, UnionFindEngine.COMPACT, 2, 5L).trials());
+  }
+
+  @Test
+  public void testStopsEarlyOncePreciseEnough() {
+    double precision = 0.01;
+    PercolationStats stats = new PercolationStats(30, 100000, Percolation::new, 1, 3L, precision);
+    assertTrue(stats.trials() < 100000);
+    assertTrue(1.96 * stats.stddev() / Math.sqrt(stats.trials()) < precision);
+    PercolationStats parallel = new PercolationStats(30, 100000, Percolation::new, 3, 3L, precision);
+    assertEquals(stats.trials(), parallel.trials());
+    assertEquals(stats.mean(), parallel.mean(), 0.0);
+  }
+
+  @Test
+  public void testSeriesSampleTheTrialsRun() {
+    double precision = 0.02;
+    PercolationStats plain = new PercolationStats(20, 1000, Percolation::new, 1, 7L, precision);
+    PercolationStats stats = new PercolationStats(20, 1000, Percolation::new, 3, 7L, precision,
+        RandomEngine.DEFAULT, 11);
+    // going on past percolation leaves the thresholds and the stopping point alone
+    assertEquals(plain.trials(), stats.trials());
+    assertEquals(plain.mean(), stats.mean(), 0.0);
+    ClusterSeries expected = new ClusterSeries(20, stats.trials(), 7L, 11);
+    for (int point = 0; point < 11; point++) {
+      assertEquals(expected.largestFraction(point), stats.series().largestFraction(point), 1e-12);
+      assertEquals(expected.clustersPerSite(point), stats.series().clustersPerSite(point), 1e-12);
+      assertEquals(expected.meanClusterSize(point), stats.series().meanClusterSize(point), 1e-9);
+    }
+    assertNull(plain.series());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectSeriesOfGridsWithoutClusters() {
+    new PercolationStats(10, 5, CompactPercolation::new, 1, 1L, 0.0, RandomEngine.DEFAULT, 11);
+  }
+}
@@ -0,0 +1,96 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class PercolationSweepTest {
+
+  // a flat JSON object of numbers and nulls, as the sweep writes
+  private static final Pattern JSON_LINE =
+      Pattern.compile("\\{(\"[A-Za-z]+\":(-?\\d+(\\.\\d+)?|null))(,\"[A-Za-z]+\":(-?\\d+(\\.\\d+)?|null))*\\}");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static PercolationSweep sweep() {
+    return new PercolationSweep(PercolationSweep.jobs(new int[] {5, 10}, new int[] {20}, new long[] {1L, 2L}),
+        UnionFindEngine.COMPACT, 2);
+  }
+
+  @Test
+  public void testParseListAndRange() {
+    assertArrayEquals(new long[] {3, 5, 8}, PercolationSweep.parseRange("3, 5,8"));
+    assertArrayEquals(new long[] {100, 150, 200}, PercolationSweep.parseRange("100:200:50"));
+    assertArrayEquals(new int[] {1, 2, 3}, PercolationSweep.parseIntRange("1:3"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectBackwardRange() {
+    PercolationSweep.parseRange("10:1");
+  }
+
+  @Test
+  public void testWritesOneCsvLinePerJob() throws IOException {
+    Path output = folder.getRoot().toPath().resolve("sweep.csv");
+    assertEquals(4, sweep().run(output));
+    List<String> lines = Files.readAllLines(output);
+    assertEquals(5, lines.size());
+    assertTrue(lines.get(0).startsWith("n,trials,seed,mean"));
+  }
+
+  @Test
+  public void testResultsMatchPercolationStatsWithTheSameSeed() throws IOException {
+    Path output = folder.getRoot().toPath().resolve("sweep.jsonl");
+    new PercolationSweep(PercolationSweep.jobs(new int[] {10}, new int[] {30}, new long[] {7L}),
+        UnionFindEngine.COMPACT, 1).run(output);
+    PercolationStats stats = new PercolationStats(10, 30, UnionFindEngine.COMPACT, 1, 7L);
+    String line = Files.readAllLines(output).get(0);
+    assertTrue(line, line.startsWith("{\"n\":10,\"trials\":30,\"seed\":7,"));
+    assertTrue(line, line.contains(String.format(java.util.Locale.ROOT, "\"mean\":%.10f,", stats.mean())));
+  }
+
+  @Test
+  public void testSingleTrialWritesValidJson() throws IOException {
+    Path output = folder.getRoot().toPath().resolve("sweep.jsonl");
+    new PercolationSweep(PercolationSweep.jobs(new int[] {10}, new int[] {1}, new long[] {3L}),
+        UnionFindEngine.COMPACT, 1).run(output);
+    String line = Files.readAllLines(output).get(0);
+    assertTrue(line, JSON_LINE.matcher(line).matches());
+    // one trial has no spread, so stddev and the confidence interval are null
+    assertTrue(line, line.contains("\"stddev\":null,\"confidenceLo\":null,\"confidenceHi\":null,"));
+    // and the line still counts as finished on resume
+    assertEquals(0, new PercolationSweep(PercolationSweep.jobs(new int[] {10}, new int[] {1}, new long[] {3L}),
+        UnionFindEngine.COMPACT, 1).run(output));
+  }
+
+  @Test
+  public void testResumeSkipsFinishedJobs() throws IOException {
+    Path output = folder.getRoot().toPath().resolve("sweep.csv");
+    sweep().run(output);
+    assertEquals(0, sweep().run(output));
+    assertEquals(5, Files.readAllLines(output).size());
+  }
+
+  @Test
+  public void testResumeDropsHalfWrittenLine() throws IOException {
+    Path output = folder.getRoot().toPath().resolve("sweep.jsonl");
+    new PercolationSweep(PercolationSweep.jobs(new int[] {5}, new int[] {20}, new long[] {1L}),
+        UnionFindEngine.COMPACT, 1).run(output);
+    Files.write(output, "{\"n\":10,\"trials\":20,\"se".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    assertEquals(3, sweep().run(output));
+    List<String> lines = Files.readAllLines(output);
+    assertEquals(4, lines.size());
+    for (String line : lines) {
+      assertTrue(line, line.endsWith("}"));
+    }
+  }
+}
@@ -1,6 +1,8 @@
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 public class PercolationTest {
@@ -225,4 +227,200 @@ public class PercolationTest {
     assertFalse(p.isFull(3, 1));
     System.out.println(ReflectionToStringBuilder.toString(p));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testUnionFindEnginesAgree() {
+    int n = 20;
+    Random random = new Random(7L);
+    Percolation algs4 = new Percolation(n, UnionFindEngine.ALGS4);
+    Percolation compact = new Percolation(n, UnionFindEngine.COMPACT);
+    for (int i = 0; i < n * n; i++) {
+      int row = 1 + random.nextInt(n);
+      int col = 1 + random.nextInt(n);
+      algs4.open(row, col);
+      compact.open(row, col);
+      assertEquals(algs4.percolates(), compact.percolates());
+      assertEquals(algs4.numberOfOpenSites(), compact.numberOfOpenSites());
+    }
+    for (int row = 1; row <= n; row++) {
+      for (int col = 1; col <= n; col++) {
+        assertEquals(algs4.isFull(row, col), compact.isFull(row, col));
+      }
+    }
+  }
+
+  @Test
+  public void testResetBlocksAllSitesAgain() {
+    Percolation p = new Percolation(3);
+    p.open(1, 1);
+    p.open(2, 1);
+    p.open(3, 1);
+    assertTrue(p.percolates());
+    p.reset();
+    assertEquals(0, p.numberOfOpenSites());
+    assertFalse(p.percolates());
+    for (int row = 1; row <= 3; row++) {
+      for (int col = 1; col <= 3; col++) {
+        assertFalse(p.isOpen(row, col));
+        assertFalse(p.isFull(row, col));
+      }
+    }
+    p.open(3, 1);
+    assertFalse(p.isFull(3, 1));
+    p.open(2, 2);
+    p.open(1, 2);
+    assertFalse(p.isFull(3, 1));
+    assertTrue(p.isFull(2, 2));
+    assertFalse(p.percolates());
+  }
+
+  // full sites found by flooding the open sites from the top row
+  private static boolean[] floodFromTop(Percolation p, int n) {
+    boolean[] full = new boolean[n * n];
+    int[] queue = new int[n * n];
+    int tail = 0;
+    for (int col = 1; col <= n; col++) {
+      if (p.isOpen(1, col)) {
+        full[col - 1] = true;
+        queue[tail++] = col - 1;
+      }
+    }
+    for (int head = 0; head < tail; head++) {
+      int site = queue[head];
+      int row = site / n + 1;
+      int col = site % n + 1;
+      int[][] neighbors = {{row - 1, col}, {row + 1, col}, {row, col - 1}, {row, col + 1}};
+      for (int[] neighbor : neighbors) {
+        int r = neighbor[0];
+        int c = neighbor[1];
+        if (r >= 1 && r <= n && c >= 1 && c <= n && !full[(r - 1) * n + c - 1] && p.isOpen(r, c)) {
+          full[(r - 1) * n + c - 1] = true;
+          queue[tail++] = (r - 1) * n + c - 1;
+        }
+      }
+    }
+    return full;
+  }
+
+  @Test
+  public void testFullSitesMatchFloodFromTop() {
+    Random random = new Random(11L);
+    int n = 12;
+    Percolation tracked = new Percolation(n);
+    Percolation late = new Percolation(n);
+    tracked.numberOfFullSites();
+    for (int i = 0; i < n * n; i++) {
+      int row = 1 + random.nextInt(n);
+      int col = 1 + random.nextInt(n);
+      tracked.open(row, col);
+      late.open(row, col);
+      if (i % 10 == 9) {
+        boolean[] full = floodFromTop(tracked, n);
+        int count = 0;
+        for (int site = 0; site < n * n; site++) {
+          assertEquals(full[site], tracked.isFull(site / n + 1, site % n + 1));
+          count += full[site] ? 1 : 0;
+        }
+        assertEquals(count, tracked.numberOfFullSites());
+      }
+    }
+    // tracking that starts late marks the same sites as tracking from the start
+    assertEquals(tracked.numberOfFullSites(), late.numberOfFullSites());
+    tracked.reset();
+    assertEquals(0, tracked.numberOfFullSites());
+    tracked.open(1, 1);
+    assertEquals(1, tracked.numberOfFullSites());
+  }
+
+  @Test
+  public void testOpenBatchMatchesOneByOneOpens() {
+    Random random = new Random(21L);
+    for (int n : new int[] {1, 2, 7, 100}) {
+      for (int round = 0; round < 5; round++) {
+        int[] sites = new int[2 * n * n];
+        for (int i = 0; i < sites.length; i++) {
+          sites[i] = random.nextInt(n * n);
+        }
+        Percolation expected = new Percolation(n);
+        int expectedOnset = -1;
+        for (int i = 0; i < sites.length; i++) {
+          expected.open(sites[i] / n + 1, sites[i] % n + 1);
+          if (expectedOnset < 0 && expected.percolates()) {
+            expectedOnset = i;
+          }
+        }
+
+        // split into uneven batches to also cover sites opened by an earlier batch
+        Percolation batched = new Percolation(n);
+        int onset = -1;
+        int from = 0;
+        while (from < sites.length) {
+          int to = Math.min(sites.length, from + 1 + random.nextInt(n * n));
+          int batchOnset = batched.openBatch(sites, from, to);
+          if (batchOnset >= 0) {
+            assertEquals(-1, onset);
+            onset = batchOnset;
+          }
+          from = to;
+        }
+        assertEquals(expectedOnset, onset);
+        assertEquals(expected.numberOfOpenSites(), batched.numberOfOpenSites());
+        assertEquals(expected.percolates(), batched.percolates());
+        for (int row = 1; row <= n; row++) {
+          for (int col = 1; col <= n; col++) {
+            assertEquals(expected.isFull(row, col), batched.isFull(row, col));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testOpenBatchOfManyBlocksMatchesOneByOneOpens() {
+    // 2 n^2 = 180000 sites in one call, so the batch runs through three blocks of 65536
+    int n = 300;
+    Random random = new Random(22L);
+    int[] sites = new int[2 * n * n];
+    for (int i = 0; i < sites.length; i++) {
+      sites[i] = random.nextInt(n * n);
+    }
+    for (Spanning spanning : Spanning.values()) {
+      Percolation expected = new Percolation(n, UnionFindEngine.COMPACT, spanning);
+      ClusterTracker expectedClusters = expected.trackClusters(false);
+      expected.numberOfFullSites();
+      int expectedOnset = -1;
+      for (int i = 0; i < sites.length; i++) {
+        expected.open(sites[i] / n + 1, sites[i] % n + 1);
+        if (expectedOnset < 0 && expected.percolates()) {
+          expectedOnset = i;
+        }
+      }
+
+      Percolation batched = new Percolation(n, UnionFindEngine.COMPACT, spanning);
+      ClusterTracker batchedClusters = batched.trackClusters(false);
+      batched.numberOfFullSites();
+      assertEquals(spanning.toString(), expectedOnset, batched.openBatch(sites, 0, sites.length));
+      assertEquals(expected.numberOfOpenSites(), batched.numberOfOpenSites());
+      assertEquals(expected.numberOfFullSites(), batched.numberOfFullSites());
+      assertEquals(expectedClusters.numberOfClusters(), batchedClusters.numberOfClusters());
+      assertEquals(expectedClusters.largestClusterSize(), batchedClusters.largestClusterSize());
+      for (int row = 1; row <= n; row++) {
+        for (int col = 1; col <= n; col++) {
+          assertEquals(expected.isFull(row, col), batched.isFull(row, col));
+        }
+      }
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testOpenBatchRejectsInvalidSite() {
+    Percolation p = new Percolation(2);
+    p.openBatch(new int[] {0, 4}, 0, 2);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testOpenBatchRejectsInvalidRange() {
+    Percolation p = new Percolation(2);
+    p.openBatch(new int[] {0, 1}, 1, 3);
+  }
+}
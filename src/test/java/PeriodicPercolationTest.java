@@ -0,0 +1,188 @@
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PeriodicPercolationTest {
+
+  private static void openRow(PercolationSystem p, int n, int row) {
+    for (int col = 1; col <= n; col++) {
+      p.open(row, col);
+    }
+  }
+
+  private static void openColumn(PercolationSystem p, int n, int col) {
+    for (int row = 1; row <= n; row++) {
+      p.open(row, col);
+    }
+  }
+
+  // wrapping directions {horizontal, vertical} of all clusters, found by a flood
+  // that gives every site a position in the unrolled plane
+  private static boolean[] floodWraps(PeriodicPercolation p, int n) {
+    boolean[] wraps = new boolean[2];
+    boolean[] seen = new boolean[n * n];
+    int[] x = new int[n * n];
+    int[] y = new int[n * n];
+    int[] queue = new int[n * n];
+    int[][] steps = {{0, -1}, {1, 0}, {0, 1}, {-1, 0}};
+    for (int start = 0; start < n * n; start++) {
+      if (seen[start] || !p.isOpen(start / n + 1, start % n + 1)) {
+        continue;
+      }
+      seen[start] = true;
+      x[start] = start % n;
+      y[start] = start / n;
+      int tail = 0;
+      queue[tail++] = start;
+      for (int head = 0; head < tail; head++) {
+        int site = queue[head];
+        for (int[] step : steps) {
+          int nx = x[site] + step[0];
+          int ny = y[site] + step[1];
+          int neighbor = Math.floorMod(ny, n) * n + Math.floorMod(nx, n);
+          if (!p.isOpen(neighbor / n + 1, neighbor % n + 1)) {
+            continue;
+          }
+          if (!seen[neighbor]) {
+            seen[neighbor] = true;
+            x[neighbor] = nx;
+            y[neighbor] = ny;
+            queue[tail++] = neighbor;
+          } else {
+            wraps[0] = wraps[0] || x[neighbor] != nx;
+            wraps[1] = wraps[1] || y[neighbor] != ny;
+          }
+        }
+      }
+    }
+    return wraps;
+  }
+
+  @Test
+  public void testOpenRowWrapsHorizontally() {
+    PeriodicPercolation p = new PeriodicPercolation(5, Wrapping.HORIZONTAL);
+    openRow(p, 5, 3);
+    assertTrue(p.percolates());
+    assertTrue(p.wrapsHorizontally(3, 1));
+    assertFalse(p.wrapsVertically(3, 1));
+    assertTrue(p.isFull(3, 4));
+    assertFalse(p.isFull(2, 4));
+  }
+
+  @Test
+  public void testOpenColumnDoesNotWrapHorizontally() {
+    PeriodicPercolation p = new PeriodicPercolation(5, Wrapping.HORIZONTAL);
+    openColumn(p, 5, 2);
+    assertFalse(p.percolates());
+    assertTrue(p.wrapsVertically(1, 2));
+  }
+
+  @Test
+  public void testBothNeedsOneClusterWrappingBothWays() {
+    PeriodicPercolation p = new PeriodicPercolation(6, Wrapping.BOTH);
+    openRow(p, 6, 1);
+    assertFalse(p.percolates());
+    openColumn(p, 6, 4);
+    assertTrue(p.percolates());
+  }
+
+  @Test
+  public void testStaircaseWindsDiagonally() {
+    // no row or column is open, yet the staircase closes a loop with winding (1, 1)
+    int n = 4;
+    PeriodicPercolation p = new PeriodicPercolation(n, Wrapping.BOTH);
+    for (int i = 1; i <= n; i++) {
+      p.open(i, i);
+      p.open(i, i % n + 1);
+    }
+    assertTrue(p.percolates());
+  }
+
+  @Test
+  public void testRingDoesNotWrap() {
+    PeriodicPercolation p = new PeriodicPercolation(6);
+    for (int i = 2; i <= 4; i++) {
+      p.open(2, i);
+      p.open(4, i);
+      p.open(i, 2);
+      p.open(i, 4);
+    }
+    assertFalse(p.percolates());
+    assertFalse(p.isFull(2, 2));
+  }
+
+  @Test
+  public void testSmallTori() {
+    PeriodicPercolation one = new PeriodicPercolation(1, Wrapping.BOTH);
+    one.open(1, 1);
+    assertTrue(one.percolates());
+    PeriodicPercolation two = new PeriodicPercolation(2, Wrapping.VERTICAL);
+    two.open(1, 1);
+    assertFalse(two.percolates());
+    two.open(2, 1);
+    assertTrue(two.percolates());
+  }
+
+  @Test
+  public void testWrappingMatchesFlood() {
+    Random random = new Random(17L);
+    for (int n : new int[] {3, 8, 13}) {
+      PeriodicPercolation p = new PeriodicPercolation(n);
+      for (int round = 0; round < 3; round++) {
+        p.reset();
+        for (int i = 0; i < n * n; i++) {
+          int row = 1 + random.nextInt(n);
+          int col = 1 + random.nextInt(n);
+          p.open(row, col);
+          boolean[] wraps = floodWraps(p, n);
+          assertEquals(wraps[0] || wraps[1], p.percolates());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testLeftRightAndAnySpanningOnOpenBoundaries() {
+    Percolation leftRight = new Percolation(5, UnionFindEngine.COMPACT, Spanning.LEFT_RIGHT);
+    Percolation any = new Percolation(5, UnionFindEngine.COMPACT, Spanning.ANY);
+    openColumn(leftRight, 5, 3);
+    openColumn(any, 5, 3);
+    assertFalse(leftRight.percolates());
+    assertTrue(any.percolates());
+    openRow(leftRight, 5, 1);
+    assertTrue(leftRight.percolates());
+
+    Percolation anyByRow = new Percolation(5, UnionFindEngine.COMPACT, Spanning.ANY);
+    openRow(anyByRow, 5, 5);
+    assertTrue(anyByRow.percolates());
+  }
+
+  @Test
+  public void testOpenBatchFindsLeftRightOnset() {
+    int n = 30;
+    Random random = new Random(23L);
+    int[] sites = new int[n * n];
+    for (int i = 0; i < sites.length; i++) {
+      sites[i] = random.nextInt(n * n);
+    }
+    Percolation expected = new Percolation(n, UnionFindEngine.COMPACT, Spanning.LEFT_RIGHT);
+    int expectedOnset = -1;
+    for (int i = 0; i < sites.length && expectedOnset < 0; i++) {
+      expected.open(sites[i] / n + 1, sites[i] % n + 1);
+      if (expected.percolates()) {
+        expectedOnset = i;
+      }
+    }
+    Percolation batched = new Percolation(n, UnionFindEngine.COMPACT, Spanning.LEFT_RIGHT);
+    assertEquals(expectedOnset, batched.openBatch(sites, 0, sites.length));
+  }
+
+  @Test
+  public void testThresholdOnTorus() {
+    PercolationStats stats = new PercolationStats(32, 100, PeriodicPercolation::new, 1, 8L);
+    assertEquals(0.593, stats.mean(), 0.03);
+  }
+
+}
@@ -0,0 +1,129 @@
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RollbackPercolationTest {
+
+  // a Percolation with just the given sites open, built from scratch
+  private static Percolation rebuild(int n, boolean[] open) {
+    Percolation p = new Percolation(n);
+    for (int site = 0; site < n * n; site++) {
+      if (open[site]) {
+        p.open(site / n + 1, site % n + 1);
+      }
+    }
+    return p;
+  }
+
+  private static void assertSameState(Percolation expected, RollbackPercolation actual, int n) {
+    assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+    assertEquals(expected.percolates(), actual.percolates());
+    for (int row = 1; row <= n; row++) {
+      for (int col = 1; col <= n; col++) {
+        assertEquals(expected.isOpen(row, col), actual.isOpen(row, col));
+        assertEquals(expected.isFull(row, col), actual.isFull(row, col));
+      }
+    }
+  }
+
+  @Test
+  public void testUndoMatchesRebuild() {
+    int n = 10;
+    Random random = new Random(1L);
+    RollbackPercolation p = new RollbackPercolation(n);
+    boolean[] open = new boolean[n * n];
+    for (int step = 0; step < 1000; step++) {
+      if (p.numberOfOpenSites() > 0 && random.nextInt(3) == 0) {
+        open[p.undo()] = false;
+      } else {
+        int site = random.nextInt(n * n);
+        p.open(site / n + 1, site % n + 1);
+        open[site] = true;
+      }
+      assertSameState(rebuild(n, open), p, n);
+    }
+  }
+
+  @Test
+  public void testCloseMatchesRebuild() {
+    int n = 9;
+    Random random = new Random(2L);
+    RollbackPercolation p = new RollbackPercolation(n);
+    boolean[] open = new boolean[n * n];
+    for (int step = 0; step < 1000; step++) {
+      int site = random.nextInt(n * n);
+      // open more often than close, so that the grid goes through percolation
+      if (random.nextInt(3) == 0) {
+        p.close(site / n + 1, site % n + 1);
+        open[site] = false;
+      } else {
+        p.open(site / n + 1, site % n + 1);
+        open[site] = true;
+      }
+      assertSameState(rebuild(n, open), p, n);
+    }
+  }
+
+  @Test
+  public void testRollbackAndReset() {
+    int n = 8;
+    Random random = new Random(3L);
+    RollbackPercolation p = new RollbackPercolation(n);
+    for (int i = 0; i < n * n; i++) {
+      p.open(1 + random.nextInt(n), 1 + random.nextInt(n));
+    }
+    assertTrue(p.percolates());
+    p.rollback(5);
+    assertEquals(5, p.numberOfOpenSites());
+    assertFalse(p.percolates());
+    p.reset();
+    assertSameState(new Percolation(n), p, n);
+  }
+
+  @Test
+  public void testOfflineMatchesRebuild() {
+    int n = 8;
+    Random random = new Random(4L);
+    int[] events = new int[600];
+    for (int t = 0; t < events.length; t++) {
+      int site = random.nextInt(n * n);
+      events[t] = random.nextInt(4) == 0 ? ~site : site;
+    }
+    boolean[] percolates = OfflinePercolation.percolatesAfterEach(n, events);
+    boolean[] open = new boolean[n * n];
+    int changes = 0;
+    for (int t = 0; t < events.length; t++) {
+      open[events[t] >= 0 ? events[t] : ~events[t]] = events[t] >= 0;
+      boolean expected = rebuild(n, open).percolates();
+      assertEquals("event " + t, expected, percolates[t]);
+      if (t > 0 && percolates[t] != percolates[t - 1]) {
+        changes++;
+      }
+    }
+    // the trace goes in and out of percolation
+    assertTrue(changes > 1);
+  }
+
+  @Test
+  public void testOfflineOfEmptyTrace() {
+    assertEquals(0, OfflinePercolation.percolatesAfterEach(3, new int[0]).length);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRejectUndoOfEmptyGrid() {
+    new RollbackPercolation(3).undo();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectRollbackPastOpenSites() {
+    new RollbackPercolation(3).rollback(1);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testRejectInvalidCloseIndices() {
+    new RollbackPercolation(3).close(0, 1);
+  }
+
+}
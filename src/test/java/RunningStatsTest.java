@@ -0,0 +1,28 @@
+import edu.princeton.cs.algs4.StdStats;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RunningStatsTest {
+
+  @Test
+  public void testMatchesStdStats() {
+    double[] values = {0.59, 0.61, 0.57, 0.6, 0.58, 0.62, 0.593};
+    RunningStats stats = new RunningStats();
+    for (double v : values) {
+      stats.add(v);
+    }
+    assertEquals(values.length, stats.count());
+    assertEquals(StdStats.mean(values), stats.mean(), 1e-15);
+    assertEquals(StdStats.stddev(values), stats.stddev(), 1e-15);
+    assertEquals(1.96 * StdStats.stddev(values) / Math.sqrt(values.length), stats.confidenceHalfWidth(), 1e-15);
+  }
+
+  @Test
+  public void testStddevOfSingleValueIsNaN() {
+    RunningStats stats = new RunningStats();
+    stats.add(0.5);
+    assertEquals(0.5, stats.mean(), 0.0);
+    assertTrue(Double.isNaN(stats.stddev()));
+  }
+}
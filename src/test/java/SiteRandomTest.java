@@ -0,0 +1,88 @@
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SiteRandomTest {
+
+  @Test
+  public void testSplitMix64ReferenceOutput() {
+    assertEquals(0xE220A8397B1DCDAFL, new SplitMix64(0L).nextLong());
+  }
+
+  @Test
+  public void testXoshiro256ReferenceOutput() {
+    // xoshiro256** from the state {1, 2, 3, 4}: rotl(2 * 5, 7) * 9
+    assertEquals(11520L, new Xoshiro256(1L, 2L, 3L, 4L).nextLong());
+  }
+
+  @Test
+  public void testSameSeedSameStream() {
+    for (RandomEngine engine : RandomEngine.values()) {
+      SiteRandom a = engine.create();
+      SiteRandom b = engine.create();
+      a.setSeed(42L);
+      b.setSeed(42L);
+      for (int i = 0; i < 100; i++) {
+        assertEquals(engine.toString(), a.nextInt(1000), b.nextInt(1000));
+      }
+    }
+  }
+
+  @Test
+  public void testNextIntIsUniform() {
+    int bound = 6;
+    int draws = 60000;
+    for (RandomEngine engine : RandomEngine.values()) {
+      SiteRandom random = engine.create();
+      random.setSeed(7L);
+      int[] counts = new int[bound];
+      for (int i = 0; i < draws; i++) {
+        counts[random.nextInt(bound)]++;
+      }
+      for (int count : counts) {
+        assertEquals(engine.toString(), draws / bound, count, 400);
+      }
+    }
+  }
+
+  @Test
+  public void testNextIntCoversLargeBounds() {
+    SiteRandom random = new Xoshiro256(1L);
+    int bound = Integer.MAX_VALUE;
+    for (int i = 0; i < 1000; i++) {
+      int value = random.nextInt(bound);
+      assertTrue(value >= 0 && value < bound);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectEmptyBound() {
+    new SplitMix64(1L).nextInt(0);
+  }
+
+  @Test
+  public void testJdkEngineKeepsTheJavaUtilRandomOrder() {
+    SiteShuffler direct = new SiteShuffler(50);
+    SiteShuffler wrapped = new SiteShuffler(50);
+    direct.restart(new Random(5L));
+    SiteRandom random = RandomEngine.JDK.create();
+    random.setSeed(5L);
+    wrapped.restart(random);
+    while (direct.hasNext()) {
+      assertEquals(direct.next(), wrapped.next());
+    }
+  }
+
+  @Test
+  public void testTrialReplaysFromSeedAlone() {
+    int n = 20;
+    for (RandomEngine engine : RandomEngine.values()) {
+      PercolationStats one = new PercolationStats(n, 1, Percolation::new, 1, 99L, 0.0, engine);
+      double replayed = PercolationStats.replayTrial(new Percolation(n), n, 99L, 0, engine);
+      assertEquals(engine.toString(), one.mean(), replayed, 0.0);
+    }
+  }
+
+}
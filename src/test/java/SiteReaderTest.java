@@ -0,0 +1,59 @@
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SiteReaderTest {
+
+  private static SiteReader readerOf(String s) {
+    return new SiteReader(new ByteArrayInputStream(s.getBytes(StandardCharsets.US_ASCII)));
+  }
+
+  @Test
+  public void testReadsHeaderAndSites() {
+    SiteReader reader = readerOf("3\r\n 1  2\n\t3 3\n2 1\n");
+    assertEquals(3, reader.nextInt());
+    int[] rows = new int[2];
+    int[] cols = new int[2];
+    assertEquals(2, reader.readSites(rows, cols));
+    assertArrayEquals(new int[] {1, 3}, rows);
+    assertArrayEquals(new int[] {2, 3}, cols);
+    assertEquals(1, reader.readSites(rows, cols));
+    assertEquals(2, rows[0]);
+    assertEquals(1, cols[0]);
+    assertEquals(0, reader.readSites(rows, cols));
+    assertFalse(reader.hasNextInt());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsRowWithoutColumn() {
+    SiteReader reader = readerOf("1 1 1");
+    reader.readSites(new int[4], new int[4]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsNonNumbers() {
+    readerOf("12x").nextInt();
+  }
+
+  @Test
+  public void testLoaderMatchesOneByOneOpens() {
+    Percolation loaded = PercolationLoader.load(Paths.get("percolation", "input20.txt"));
+    SiteReader reader = SiteReader.open(Paths.get("percolation", "input20.txt"));
+    int n = reader.nextInt();
+    Percolation expected = new Percolation(n);
+    while (reader.hasNextInt()) {
+      expected.open(reader.nextInt(), reader.nextInt());
+    }
+    assertEquals(expected.numberOfOpenSites(), loaded.numberOfOpenSites());
+    assertEquals(expected.percolates(), loaded.percolates());
+    for (int row = 1; row <= n; row++) {
+      for (int col = 1; col <= n; col++) {
+        assertEquals(expected.isFull(row, col), loaded.isFull(row, col));
+      }
+    }
+  }
+}
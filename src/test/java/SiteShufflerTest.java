@@ -0,0 +1,55 @@
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SiteShufflerTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectZeroSize() {
+    new SiteShuffler(0);
+  }
+
+  @Test
+  public void testDrawsEverySiteExactlyOnce() {
+    SiteShuffler shuffler = new SiteShuffler(50);
+    shuffler.restart(new Random(1L));
+    boolean[] seen = new boolean[50];
+    while (shuffler.hasNext()) {
+      int site = shuffler.next();
+      assertFalse(seen[site]);
+      seen[site] = true;
+    }
+    for (boolean s : seen) {
+      assertTrue(s);
+    }
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testNextRejectsExhaustedPass() {
+    SiteShuffler shuffler = new SiteShuffler(1);
+    shuffler.restart(new Random(1L));
+    shuffler.next();
+    shuffler.next();
+  }
+
+  @Test
+  public void testRestartReplaysSameSeedAfterPartialPass() {
+    SiteShuffler shuffler = new SiteShuffler(30);
+    shuffler.restart(new Random(5L));
+    int[] first = new int[30];
+    for (int i = 0; i < first.length; i++) {
+      first[i] = shuffler.next();
+    }
+    shuffler.restart(new Random(6L));
+    for (int i = 0; i < 10; i++) {
+      shuffler.next();
+    }
+    shuffler.restart(new Random(5L));
+    for (int i = 0; i < first.length; i++) {
+      assertEquals(first[i], shuffler.next());
+    }
+  }
+}
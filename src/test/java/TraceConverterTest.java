@@ -0,0 +1,131 @@
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class TraceConverterTest {
+
+  private static final Path INPUT = Paths.get("percolation", "wayne98.txt");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private void assertRoundTrip(boolean deflate) throws IOException {
+    Path trace = folder.newFile().toPath();
+    Path text = folder.newFile().toPath();
+    TraceConverter.toTrace(INPUT, trace, deflate);
+    TraceConverter.toText(trace, text);
+    assertEquals(Files.readAllLines(INPUT), Files.readAllLines(text));
+    assertTrue(Files.size(trace) < Files.size(INPUT) / 2);
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    assertRoundTrip(false);
+  }
+
+  @Test
+  public void testDeflatedRoundTrip() throws IOException {
+    assertRoundTrip(true);
+  }
+
+  @Test
+  public void testReplayMatchesTextFile() throws IOException {
+    Path trace = folder.newFile().toPath();
+    TraceConverter.toTrace(INPUT, trace, true);
+    Percolation replayed = TraceConverter.replay(trace);
+    Percolation loaded = PercolationLoader.load(INPUT);
+    assertEquals(loaded.numberOfOpenSites(), replayed.numberOfOpenSites());
+    assertEquals(loaded.percolates(), replayed.percolates());
+  }
+
+  @Test(expected = IOException.class)
+  public void testDetectsCorruption() throws IOException {
+    File trace = folder.newFile();
+    TraceConverter.toTrace(INPUT, trace.toPath(), false);
+    try (RandomAccessFile file = new RandomAccessFile(trace, "rw")) {
+      file.seek(file.length() - 1);
+      int last = file.read();
+      file.seek(file.length() - 1);
+      file.write(last ^ 0x01);
+    }
+    TraceConverter.replay(trace.toPath());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsGridsWithMoreSitesThanAnInt() throws IOException {
+    new TraceWriter(folder.getRoot().toPath().resolve("large.trace"), 46341, false).close();
+  }
+
+  // a trace of count sites on an n-by-n grid with the given body and a valid checksum
+  private Path rawTrace(int n, long count, byte[] body) throws IOException {
+    Path trace = folder.newFile().toPath();
+    CRC32 crc = new CRC32();
+    crc.update(body);
+    try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(trace))) {
+      out.writeInt(TraceWriter.MAGIC);
+      out.writeByte(TraceWriter.VERSION);
+      out.writeByte(0);
+      out.writeInt(n);
+      out.writeLong(count);
+      out.writeInt((int) crc.getValue());
+      out.write(body);
+    }
+    return trace;
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsHeaderWithGridTooLarge() throws IOException {
+    new TraceReader(rawTrace(46341, 0, new byte[0])).close();
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsHeaderWithEmptyGrid() throws IOException {
+    new TraceReader(rawTrace(0, 0, new byte[0])).close();
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsVarintPastFiveBytes() throws IOException {
+    // the fifth byte still has its continuation bit set
+    byte[] body = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80};
+    try (TraceReader reader = new TraceReader(rawTrace(10, 1, body))) {
+      reader.nextSite();
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsTextFiles() throws IOException {
+    new TraceReader(INPUT).close();
+  }
+
+  @Test
+  public void testSiteIndicesSurviveLargeJumps() throws IOException {
+    Path trace = folder.newFile().toPath();
+    int[] sites = {0, 999999, 3, 500000, 999998, 0};
+    try (TraceWriter writer = new TraceWriter(trace, 1000, false)) {
+      for (int site : sites) {
+        writer.writeSite(site);
+      }
+    }
+    int[] read = new int[sites.length];
+    try (TraceReader reader = new TraceReader(trace)) {
+      assertEquals(sites.length, reader.count());
+      for (int i = 0; i < read.length; i++) {
+        read[i] = reader.nextSite();
+      }
+      assertFalse(reader.hasNext());
+    }
+    assertTrue(Arrays.equals(sites, read));
+  }
+}